@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.jmh;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alkemy.Alkemy;
+import org.alkemy.annotations.AlkemyLeaf;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Typed leaf access against a plain field read.
+ * <p>
+ * Run with <code>mvn -Pjmh test-compile exec:exec -Djmh.args=TypedLeafBenchmark</code>. To check that the typed accessors
+ * inline through to the field access, run <code>org.openjdk.jmh.Main TypedLeafBenchmark.typedLeaf -jvmArgsAppend
+ * "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining"</code> on the test classpath: <code>IntLeaf::getInt</code>,
+ * <code>IntReference::getInt</code> and the generated model's <code>getInt</code> should all be reported as
+ * <code>inline (hot)</code>. Without any of them ({@link #reflectedLeaf()}), <code>ReflectedIntLeaf::getInt</code> and
+ * <code>ReflectedIntReference::getInt</code> should be inlined down to the field's method handle.
+ * <p>
+ * Each typed call site only stays monomorphic while it sees a single leaf kind. Mixed leaves should be grouped by kind first
+ * ({@link #leavesByKind()}), walking them through a single call site ({@link #mixedLeaves()}) is megamorphic and boxes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedLeafBenchmark
+{
+    private Sample sample;
+    private AlkemyElement intLeaf;
+    private AlkemyElement copiedLeaf;
+    private AlkemyElement reflectedLeaf;
+    private ReflectedSample<?> reflectedSample;
+    private AlkemyElement[] ints;
+    private AlkemyElement[] longs;
+    private AlkemyElement[] doubles;
+    private AlkemyElement[] strings;
+    private AlkemyElement[] leaves;
+
+    @Setup
+    public void setup()
+    {
+        sample = new Sample();
+
+        final List<AlkemyElement> all = new ArrayList<AlkemyElement>();
+        Alkemy.parse(Sample.class).drainTo(all);
+        all.removeIf(e -> e.isNode());
+
+        leaves = all.toArray(new AlkemyElement[0]);
+        ints = ofType(all, int.class);
+        longs = ofType(all, long.class);
+        doubles = ofType(all, double.class);
+        strings = ofType(all, String.class);
+
+        intLeaf = ints[0];
+        copiedLeaf = new CopiedElement(intLeaf);
+
+        reflectedSample = new ReflectedSample<>();
+        reflectedLeaf = Alkemy.parse(ReflectedSample.class).children().get(0).data();
+    }
+
+    @Benchmark
+    public int directField()
+    {
+        return sample.i1;
+    }
+
+    @Benchmark
+    public int typedLeaf()
+    {
+        return intLeaf.getInt(sample);
+    }
+
+    @Benchmark
+    public int copiedLeaf()
+    {
+        return copiedLeaf.getInt(sample);
+    }
+
+    @Benchmark
+    public int reflectedLeaf()
+    {
+        return reflectedLeaf.getInt(reflectedSample);
+    }
+
+    @Benchmark
+    public long leavesByKind()
+    {
+        long sum = 0;
+        for (AlkemyElement e : ints)
+        {
+            sum += e.getInt(sample);
+        }
+        for (AlkemyElement e : longs)
+        {
+            sum += e.getLong(sample);
+        }
+        for (AlkemyElement e : doubles)
+        {
+            sum += (long) e.getDouble(sample);
+        }
+        for (AlkemyElement e : strings)
+        {
+            sum += e.getString(sample).length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long mixedLeaves()
+    {
+        long sum = 0;
+        for (AlkemyElement e : leaves)
+        {
+            sum += e.get(sample).hashCode();
+        }
+        return sum;
+    }
+
+    private static AlkemyElement[] ofType(List<AlkemyElement> leaves, Class<?> type)
+    {
+        return leaves.stream().filter(e -> e.type() == type).toArray(AlkemyElement[]::new);
+    }
+
+    static class CopiedElement extends AlkemyElement
+    {
+        CopiedElement(AlkemyElement other)
+        {
+            super(other);
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.FIELD })
+    @AlkemyLeaf
+    public @interface Leaf
+    {
+    }
+
+    public static class Sample
+    {
+        @Leaf
+        int i1 = 1;
+
+        @Leaf
+        int i2 = 2;
+
+        @Leaf
+        long l1 = 3;
+
+        @Leaf
+        long l2 = 4;
+
+        @Leaf
+        double d1 = 5;
+
+        @Leaf
+        String s1 = "six";
+
+        @Leaf
+        String s2 = "seven";
+    }
+
+    /**
+     * Generic, so no model is generated, and private, so no accessors: its leaves are reflected.
+     */
+    public static class ReflectedSample<T>
+    {
+        @Leaf
+        private int i1 = 1;
+    }
+}
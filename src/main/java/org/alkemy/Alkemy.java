@@ -21,62 +21,133 @@
  *******************************************************************************/
 package org.alkemy;
 
-import static org.alkemy.util.Nodes.arborescence;
-import static org.alkemy.util.Nodes.copy;
-
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
-import org.alkemy.parse.AlkemyParser;
 import org.alkemy.parse.impl.AlkemyElement;
-import org.alkemy.parse.impl.AlkemyLeafLexer;
-import org.alkemy.parse.impl.AnnotatedAlkemyElementFactory;
-import org.alkemy.parse.impl.TypeParser;
+import org.alkemy.parse.impl.TypeIndex;
 import org.alkemy.util.Node;
-import org.alkemy.util.Node.Builder;
 
+/**
+ * Static access to a default {@link AlkemyEngine}.
+ */
 public class Alkemy
 {
-    private static final int MAXIMUM_CACHE_SIZE_IN_BYTES = 2 * 1024 * 1024;
-    private static final AlkemyParser TYPE_PARSER = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
-
-    private static NodeCache cache = new NodeCache(TYPE_PARSER, MAXIMUM_CACHE_SIZE_IN_BYTES);
+    private static final AlkemyEngine engine = AlkemyEngine.create();
 
     private Alkemy()
     {
     }
 
-    private static boolean caching = true;
+    /**
+     * Returns the default engine backing these static methods.
+     */
+    public static AlkemyEngine engine()
+    {
+        return engine;
+    }
 
     /**
      * Enables / Disables parsed nodes caching.
      */
     public static void setCaching(boolean enabled)
     {
-        caching = enabled;
+        engine.setCaching(enabled);
     }
 
-    private static long cacheSize = MAXIMUM_CACHE_SIZE_IN_BYTES;
-
     /**
-     * Invalidates the current cache and sets a new max caching size.
+     * Sets a new max caching size (in bytes). Already cached trees are kept as long as they fit.
      */
     public static void setCacheSize(long newSize)
     {
-        cache = new NodeCache(TYPE_PARSER, cacheSize);
+        engine.setCacheSize(newSize);
+    }
+
+    /**
+     * Returns a snapshot of the parsed nodes cache statistics.
+     */
+    public static NodeCacheStats cacheStats()
+    {
+        return engine.cacheStats();
+    }
+
+    /**
+     * Parses and caches the types concurrently in the common fork-join pool.
+     * <p>
+     * Each distinct type is parsed once. Types which can't be parsed are reported in the result without aborting the batch.
+     */
+    public static PreloadResult preload(Collection<Class<?>> types)
+    {
+        return engine.preload(types);
+    }
+
+    /**
+     * As {@link #preload(Collection)} using the provided pool.
+     */
+    public static PreloadResult preload(Collection<Class<?>> types, ForkJoinPool pool)
+    {
+        return engine.preload(types, pool);
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all concrete classes within the package (and sub-packages) visible from the context
+     * class loader.
+     */
+    public static PreloadResult preloadPackage(String packageName)
+    {
+        return engine.preloadPackage(packageName);
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all concrete classes within the package (and sub-packages) visible from the class
+     * loader.
+     */
+    public static PreloadResult preloadPackage(String packageName, ClassLoader classLoader, ForkJoinPool pool)
+    {
+        return engine.preload(Preloader.findClasses(packageName, classLoader), pool);
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all the types indexed at build time (see {@link TypeIndex}) visible from the context
+     * class loader.
+     */
+    public static PreloadResult preloadIndexed()
+    {
+        return engine.preloadIndexed();
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all the types indexed at build time (see {@link TypeIndex}) visible from the class
+     * loader.
+     */
+    public static PreloadResult preloadIndexed(ClassLoader classLoader, ForkJoinPool pool)
+    {
+        return engine.preload(Preloader.findIndexedClasses(classLoader), pool);
     }
 
     public static Node<AlkemyElement> parse(Class<?> type)
     {
-        return caching ? cache.get(type) : TYPE_PARSER.parse(type);
+        return engine.parse(type);
+    }
+
+    public static <T extends AlkemyElement> Node<T> parse(Class<?> type//
+            , Predicate<AlkemyElement> filter//
+            , Function<AlkemyElement, T> function)
+    {
+        return engine.parse(type, filter, function);
     }
 
+    /**
+     * As {@link #parse(Class, Predicate, Function)} caching the projected tree by type and projection key (see
+     * {@link AlkemyEngine#parse(Class, Object, Predicate, Function)}).
+     */
     public static <T extends AlkemyElement> Node<T> parse(Class<?> type//
+            , Object projectionKey//
             , Predicate<AlkemyElement> filter//
             , Function<AlkemyElement, T> function)
     {
-        final Node<AlkemyElement> src = parse(type);
-        final Builder<T> dst = arborescence(function.apply(src.data()));
-        return copy(src, dst, filter, function).build();
+        return engine.parse(type, projectionKey, filter, function);
     }
 }
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import static org.alkemy.util.Nodes.arborescence;
+import static org.alkemy.util.Nodes.copy;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.alkemy.parse.AlkemyLexer;
+import org.alkemy.parse.AlkemyParser;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.AlkemyElementFactory;
+import org.alkemy.parse.impl.AlkemyLeafLexer;
+import org.alkemy.parse.impl.AnnotatedAlkemyElementFactory;
+import org.alkemy.parse.impl.AnnotatedMember;
+import org.alkemy.parse.impl.TypeIndex;
+import org.alkemy.parse.impl.TypeParser;
+import org.alkemy.util.Assertions;
+import org.alkemy.util.Node;
+import org.alkemy.util.Node.Builder;
+
+/**
+ * A self contained alkemy configuration: parser, lexer, element factory, cache and preloading pool.
+ * <p>
+ * Engines don't share any state, so they can be created per tenant or per class loader, each with its own cache budget. The
+ * {@link Alkemy} static methods delegate to a default engine.
+ * <p>
+ * Engines are thread safe.
+ */
+public class AlkemyEngine
+{
+    static final long DEFAULT_CACHE_SIZE_IN_BYTES = 2 * 1024 * 1024;
+
+    private final AlkemyParser parser;
+    private final NodeCache cache;
+    private final ForkJoinPool pool;
+    private final ClassLoader classLoader;
+    private volatile boolean caching;
+
+    private AlkemyEngine(EngineBuilder builder)
+    {
+        this.parser = builder.parser();
+        this.cache = new NodeCache(parser, builder.cacheSize);
+        this.pool = builder.pool;
+        this.classLoader = builder.classLoader;
+        this.caching = builder.caching;
+    }
+
+    /**
+     * Creates an engine with the default configuration.
+     */
+    public static AlkemyEngine create()
+    {
+        return builder().build();
+    }
+
+    public static EngineBuilder builder()
+    {
+        return new EngineBuilder();
+    }
+
+    /**
+     * Enables / Disables parsed nodes caching.
+     */
+    public void setCaching(boolean enabled)
+    {
+        caching = enabled;
+    }
+
+    /**
+     * Sets a new max caching size (in bytes). Already cached trees are kept as long as they fit.
+     */
+    public void setCacheSize(long newSize)
+    {
+        cache.resize(newSize);
+    }
+
+    /**
+     * Returns a snapshot of the parsed nodes cache statistics.
+     */
+    public NodeCacheStats cacheStats()
+    {
+        return cache.stats();
+    }
+
+    /**
+     * Parses and caches the types concurrently in the engine pool.
+     * <p>
+     * Each distinct type, including the types nested in several of them, is parsed once. Types which can't be parsed are
+     * reported in the result without aborting the batch.
+     */
+    public PreloadResult preload(Collection<Class<?>> types)
+    {
+        return preload(types, pool());
+    }
+
+    /**
+     * As {@link #preload(Collection)} using the provided pool.
+     */
+    public PreloadResult preload(Collection<Class<?>> types, ForkJoinPool pool)
+    {
+        return Preloader.preload(types, cache::get, pool);
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all concrete classes within the package (and sub-packages) visible from the engine
+     * class loader.
+     */
+    public PreloadResult preloadPackage(String packageName)
+    {
+        return preload(Preloader.findClasses(packageName, classLoader()));
+    }
+
+    /**
+     * As {@link #preload(Collection)} for all the types indexed at build time (see {@link TypeIndex}) visible from the engine
+     * class loader.
+     */
+    public PreloadResult preloadIndexed()
+    {
+        return preload(Preloader.findIndexedClasses(classLoader()));
+    }
+
+    public Node<AlkemyElement> parse(Class<?> type)
+    {
+        return caching ? cache.get(type) : parser.parse(type);
+    }
+
+    public <T extends AlkemyElement> Node<T> parse(Class<?> type//
+            , Predicate<AlkemyElement> filter//
+            , Function<AlkemyElement, T> function)
+    {
+        final Node<AlkemyElement> src = parse(type);
+        final Builder<T> dst = arborescence(function.apply(src.data()));
+        return copy(src, dst, filter, function).build();
+    }
+
+    /**
+     * As {@link #parse(Class, Predicate, Function)} caching the projected tree by type and projection key.
+     * <p>
+     * The key must identify the filter and function pair, i.e. a constant or an enum. Repeated projections with the same key
+     * return the cached tree.
+     */
+    public <T extends AlkemyElement> Node<T> parse(Class<?> type//
+            , Object projectionKey//
+            , Predicate<AlkemyElement> filter//
+            , Function<AlkemyElement, T> function)
+    {
+        return caching ? cache.get(type, projectionKey, t -> parse(t, filter, function)) : parse(type, filter, function);
+    }
+
+    private ForkJoinPool pool()
+    {
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    private ClassLoader classLoader()
+    {
+        return classLoader != null ? classLoader : Thread.currentThread().getContextClassLoader();
+    }
+
+    public static class EngineBuilder
+    {
+        private AlkemyElementFactory<AnnotatedMember> elementFactory;
+        private AlkemyLexer<AnnotatedMember> lexer;
+        private AlkemyParser parser;
+        private long cacheSize = DEFAULT_CACHE_SIZE_IN_BYTES;
+        private boolean caching = true;
+        private boolean lazyParsing = false;
+        private boolean parallelParsing = false;
+        private ForkJoinPool pool;
+        private ClassLoader classLoader;
+
+        private EngineBuilder()
+        {
+        }
+
+        /**
+         * The factory of the elements created by the default lexer. Ignored if a lexer or a parser is provided.
+         */
+        public EngineBuilder elementFactory(AlkemyElementFactory<AnnotatedMember> elementFactory)
+        {
+            Assertions.nonNull(elementFactory);
+            this.elementFactory = elementFactory;
+            return this;
+        }
+
+        /**
+         * The lexer used by the default parser. Ignored if a parser is provided.
+         */
+        public EngineBuilder lexer(AlkemyLexer<AnnotatedMember> lexer)
+        {
+            Assertions.nonNull(lexer);
+            this.lexer = lexer;
+            return this;
+        }
+
+        public EngineBuilder parser(AlkemyParser parser)
+        {
+            Assertions.nonNull(parser);
+            this.parser = parser;
+            return this;
+        }
+
+        /**
+         * The max caching size (in bytes). Defaults to 2MB.
+         */
+        public EngineBuilder cacheSize(long cacheSize)
+        {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public EngineBuilder caching(boolean caching)
+        {
+            this.caching = caching;
+            return this;
+        }
+
+        /**
+         * If enabled, parsed trees materialize their branches the first time they are visited (see {@link TypeParser#lazy}).
+         * Ignored if a parser is provided.
+         */
+        public EngineBuilder lazyParsing(boolean lazyParsing)
+        {
+            this.lazyParsing = lazyParsing;
+            return this;
+        }
+
+        /**
+         * If enabled, sibling subtrees are parsed concurrently in the engine pool (see {@link TypeParser#parallel}). Ignored if
+         * a parser is provided or if lazy parsing is enabled.
+         */
+        public EngineBuilder parallelParsing(boolean parallelParsing)
+        {
+            this.parallelParsing = parallelParsing;
+            return this;
+        }
+
+        /**
+         * The pool used for preloading and parallel parsing. Defaults to the {@link ForkJoinPool#commonPool()}.
+         */
+        public EngineBuilder pool(ForkJoinPool pool)
+        {
+            Assertions.nonNull(pool);
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * The class loader scanned when preloading packages or indexed types. Defaults to the calling thread context class loader.
+         */
+        public EngineBuilder classLoader(ClassLoader classLoader)
+        {
+            Assertions.nonNull(classLoader);
+            this.classLoader = classLoader;
+            return this;
+        }
+
+        public AlkemyEngine build()
+        {
+            return new AlkemyEngine(this);
+        }
+
+        private AlkemyParser parser()
+        {
+            if (parser != null)
+            {
+                return parser;
+            }
+            final AlkemyLexer<AnnotatedMember> lexer = this.lexer != null ? this.lexer
+                    : AlkemyLeafLexer.create(elementFactory != null ? elementFactory : AnnotatedAlkemyElementFactory.create());
+            if (lazyParsing)
+            {
+                return TypeParser.lazy(lexer);
+            }
+            return parallelParsing ? TypeParser.parallel(lexer, pool != null ? pool : ForkJoinPool.commonPool())
+                    : TypeParser.create(lexer);
+        }
+    }
+}
@@ -21,39 +21,93 @@
  *******************************************************************************/
 package org.alkemy;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import org.agenttools.Agents;
 import org.alkemy.exception.AlkemyException;
 import org.alkemy.parse.AlkemyParser;
 import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.TypeFragments;
+import org.alkemy.parse.impl.TypeParser;
 import org.alkemy.util.Assertions;
 import org.alkemy.util.Node;
+import org.alkemy.util.Nodes;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
+/**
+ * A cache of parsed trees bounded by their retained size (see {@link NodeWeigher}).
+ * <p>
+ * Trees are stored in a {@link ClassValue} slot of the parsed type, so repeated lookups are a single read without hashing nor
+ * locking, and cached trees go away together with their class loader. The weight budget is accounted in a cache weakly keyed by
+ * slot which empties the evicted slots. Hits record their access in that cache (a single read of its entry), so the least
+ * recently used trees are evicted first, and trees not accessed for an hour expire.
+ * <p>
+ * The fragments a {@link TypeParser} shares among its trees (see {@link TypeFragments}) are accounted once, charged to one of
+ * the cached trees using them, and handed over to another one when it's evicted. Fragments no longer used by any cached tree
+ * are released, so the retained memory follows the budget.
+ * <p>
+ * Derived trees, such as projections, are cached by type and key in their own slots under the same budget (see
+ * {@link #get(Class, Object, Function)}). What they share with the parsed elements is part of the fragments, so a projection
+ * only weighs what it owns.
+ * <p>
+ * The cache can be resized at any time with {@link #resize(long)}. Already cached trees are kept as long as they fit in the new
+ * budget.
+ * <p>
+ * Lazy trees (see {@link Nodes#lazy(Object, Function, java.util.function.Predicate)}) weigh each branch they materialize, and
+ * the growth is charged on their next lookup, so the budget follows what they actually hold.
+ */
 public class NodeCache
 {
     private final AlkemyParser parser;
-    private final LoadingCache<Class<?>, Node<AlkemyElement>> cache;
+    private final TypeFragments fragments; // null if the parser doesn't share them.
+    private final Map<Object, Share> shares = new IdentityHashMap<>(); // guarded by itself
+    private final ClassValue<Slot> slots = new ClassValue<Slot>()
+    {
+        @Override
+        protected Slot computeValue(Class<?> type)
+        {
+            return new Slot();
+        }
+    };
+
+    private final ClassValue<ConcurrentMap<Object, Slot>> keyedSlots = new ClassValue<ConcurrentMap<Object, Slot>>()
+    {
+        @Override
+        protected ConcurrentMap<Object, Slot> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private volatile Store store;
 
     public NodeCache(AlkemyParser parser, long maxSize)
     {
         this.parser = parser;
-        this.cache = CacheBuilder.newBuilder()//
-                .maximumWeight(maxSize)//
-                .weigher((k, v) -> (int) Agents.getObjectSize(k))//
-                .expireAfterAccess(60, TimeUnit.MINUTES)//
-                .build(new CacheLoader<Class<?>, Node<AlkemyElement>>()
-                {
-                    @Override
-                    public Node<AlkemyElement> load(Class<?> key) throws AlkemyException
-                    {
-                        return _create(key);
-                    }
-                });
+        this.fragments = parser instanceof TypeParser ? ((TypeParser) parser).fragments() : null;
+        this.store = new Store(maxSize);
     }
 
     private final Node<AlkemyElement> _create(Class<?> type)
@@ -64,13 +118,447 @@ public class NodeCache
     public Node<AlkemyElement> get(Class<?> type)
     {
         Assertions.nonNull(type);
-        try
+        return get(slots.get(type), () -> _create(type), type);
+    }
+
+    /**
+     * Returns the tree identified by the type and key, loading it if not cached.
+     * <p>
+     * The key must identify the loader: each type and key pair is loaded once and shares the cache budget with the parsed trees.
+     * The entry of a key is dropped once its tree is evicted.
+     */
+    public <E> Node<E> get(Class<?> type, Object key, Function<? super Class<?>, Node<E>> loader)
+    {
+        Assertions.noneNull(type, key, loader);
+        final ConcurrentMap<Object, Slot> slots = keyedSlots.get(type);
+        return get(slots.computeIfAbsent(key, k -> new KeyedSlot(slots, k)), () -> loader.apply(type), type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> Node<E> get(Slot slot, Supplier<Node<E>> loader, Class<?> type)
+    {
+        lookupCount.increment();
+
+        final Node<?> node = slot.node;
+        if (node != null)
+        {
+            if (slot.grown)
+            {
+                settle(slot);
+            }
+            store.cache.getIfPresent(slot); // records the access.
+            return (Node<E>) node;
+        }
+        return load(slot, loader, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> Node<E> load(Slot slot, Supplier<Node<E>> loader, Class<?> type)
+    {
+        final Usage usage;
+        final Node<E> node;
+        synchronized (slot)
+        {
+            if (slot.node != null)
+            {
+                return (Node<E>) slot.node;
+            }
+
+            final long start = System.nanoTime();
+            try
+            {
+                node = loader.get();
+            }
+            catch (Exception e)
+            {
+                slot.cleared(); // not registered, never evicted.
+                throw new AlkemyException("Can't create an alkemy tree for The requested type '%s'.", e, type.getName());
+            }
+            finally
+            {
+                loadCount.increment();
+                totalLoadTime.add(System.nanoTime() - start);
+            }
+
+            usage = new Usage();
+            usage.add(weigh(node, usage.parts), 0);
+            slot.usage = usage;
+            slot.node = node;
+        }
+        usage.add(0, attach(slot, usage, usage.parts));
+        register(slot, usage);
+
+        final TypeFragments fragments = this.fragments;
+        Nodes.onExpansion(node, branch ->
+        {
+            // only the new branch is weighed, on the expanding thread. it's charged on the next lookup.
+            final Set<Object> parts = Collections.newSetFromMap(new IdentityHashMap<>());
+            usage.grow(NodeWeigher.weighBranch(branch, o -> isPart(fragments, o, parts)), parts);
+            slot.grown = true;
+        });
+        return node;
+    }
+
+    // the weight of the tree, excluding the shared parts it uses.
+    private long weigh(Object root, Set<Object> parts)
+    {
+        // the parser is reached from the expansion of lazy trees.
+        return NodeWeigher.weigh(root, o -> o == parser || isPart(fragments, o, parts));
+    }
+
+    // collects the shared part (and the ones it inherits) the object belongs to, if any.
+    private static boolean isPart(TypeFragments fragments, Object o, Set<Object> parts)
+    {
+        final Object part = fragments != null ? fragments.partOf(o) : null;
+        for (Object p = part; p != null; p = fragments.inherited(p))
+        {
+            parts.add(p);
+        }
+        return part != null;
+    }
+
+    // the weight of the part, excluding the parts it inherits.
+    private long weighPart(Object part)
+    {
+        return NodeWeigher.weigh(part, o ->
+        {
+            final Object owner = fragments.partOf(o);
+            return owner != null && owner != part;
+        });
+    }
+
+    /*
+     * Adds the tree to the users of the parts. Returns the weight of the parts it's the first to use, which are charged to it.
+     */
+    private long attach(Slot slot, Usage usage, Set<Object> parts)
+    {
+        long weight = 0;
+        synchronized (shares)
+        {
+            if (usage.detached) // evicted meanwhile
+            {
+                return 0;
+            }
+            for (Object part : parts)
+            {
+                final Share share = shares.computeIfAbsent(part, p -> new Share(weighPart(p)));
+                if (share.users.put(usage, slot) == null && share.owner == null)
+                {
+                    share.owner = usage;
+                    weight += share.weight;
+                }
+            }
+        }
+        return weight;
+    }
+
+    /*
+     * Removes an evicted tree from the users of its parts. The parts it was charged are handed over to another user, or
+     * released if none.
+     */
+    private void detach(Usage usage)
+    {
+        final List<Object> released = new ArrayList<>();
+        final Map<Usage, Slot> heirs = new LinkedHashMap<>();
+        final Map<Usage, Long> inherited = new IdentityHashMap<>();
+        synchronized (shares)
+        {
+            usage.detached = true;
+            for (Object part : usage.parts)
+            {
+                final Share share = shares.get(part);
+                if (share == null || share.users.remove(usage) == null || share.owner != usage)
+                {
+                    continue;
+                }
+                if (share.users.isEmpty())
+                {
+                    shares.remove(part);
+                    released.add(part);
+                }
+                else
+                {
+                    final Map.Entry<Usage, Slot> heir = share.users.entrySet().iterator().next();
+                    share.owner = heir.getKey();
+                    heirs.put(heir.getKey(), heir.getValue());
+                    inherited.merge(heir.getKey(), share.weight, Long::sum);
+                }
+            }
+        }
+        released.forEach(fragments::release);
+        heirs.forEach((u, s) -> charge(s, u, 0, inherited.get(u)));
+    }
+
+    // outside the slot lock, the registration might evict other types.
+    private void register(Slot slot, Usage usage)
+    {
+        final Store current = store;
+        current.put(slot, usage.token());
+        if (current != store) // resized meanwhile
+        {
+            store.put(slot, usage.token());
+        }
+        usage.registered = true;
+        charge(slot, usage, 0, 0); // charged meanwhile
+    }
+
+    // replaces the registered weight of the tree, unless it's not (or no longer) cached.
+    private void charge(Slot slot, Usage usage, long own, long shared)
+    {
+        usage.add(own, shared);
+        if (usage.registered)
+        {
+            final Store current = store;
+            current.replace(slot, usage);
+            if (current != store) // resized meanwhile
+            {
+                store.replace(slot, usage);
+            }
+        }
+    }
+
+    // charges the branches materialized since the last lookup.
+    private void settle(Slot slot)
+    {
+        final Usage usage;
+        final Set<Object> parts = Collections.newSetFromMap(new IdentityHashMap<>());
+        final long growth;
+        synchronized (slot)
+        {
+            usage = slot.usage;
+            slot.grown = false;
+            if (usage == null) // evicted
+            {
+                return;
+            }
+            growth = usage.drain(parts);
+            parts.removeAll(usage.parts);
+            usage.parts.addAll(parts);
+        }
+        charge(slot, usage, growth, attach(slot, usage, parts));
+    }
+
+    /**
+     * Changes the maximum weight (in bytes) of the cache.
+     * <p>
+     * Cached trees are transferred to the resized cache. If the new size is smaller than the current weight, the exceeding
+     * trees are evicted.
+     */
+    public synchronized void resize(long maxSize)
+    {
+        final Store old = store;
+        if (old.maxWeight != maxSize)
+        {
+            final Store resized = new Store(maxSize);
+            store = resized;
+            old.cache.asMap().forEach(resized::put);
+        }
+    }
+
+    /**
+     * Discards all cached trees.
+     */
+    public void invalidateAll()
+    {
+        store.cache.invalidateAll();
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics accumulated since the cache was created.
+     */
+    public NodeCacheStats stats()
+    {
+        final Store current = store;
+        final long loads = loadCount.sum();
+        return new NodeCacheStats(Math.max(0, lookupCount.sum() - loads)//
+                , loads//
+                , evictionCount.sum()//
+                , loads//
+                , totalLoadTime.sum()//
+                , current.cache.size()//
+                , current.weight.get()//
+                , current.maxWeight);
+    }
+
+    int keyCount(Class<?> type) // visible for testing
+    {
+        return keyedSlots.get(type).size();
+    }
+
+    private void onRemoval(RemovalNotification<Slot, Token> n)
+    {
+        final Slot slot = n.getKey();
+        if (n.getCause() != RemovalCause.REPLACED && slot != null) // null if the type has been collected
+        {
+            final Usage usage = slot.clear(n.getValue().usage);
+            if (usage != null)
+            {
+                detach(usage);
+            }
+        }
+        if (n.wasEvicted())
+        {
+            evictionCount.increment();
+        }
+    }
+
+    private class Store
+    {
+        private final long maxWeight;
+        private final AtomicLong weight = new AtomicLong();
+        private final Cache<Slot, Token> cache;
+
+        Store(long maxWeight)
+        {
+            this.maxWeight = maxWeight;
+            this.cache = CacheBuilder.newBuilder()//
+                    .weakKeys()//
+                    .maximumWeight(maxWeight)//
+                    .expireAfterAccess(60, TimeUnit.MINUTES)//
+                    .weigher((Slot k, Token v) -> v.weight)//
+                    .removalListener((RemovalListener<Slot, Token>) n ->
+                    {
+                        weight.addAndGet(-n.getValue().weight);
+                        if (store == this) // a resized cache discards the old one w/o evicting.
+                            onRemoval(n);
+                    })//
+                    .build();
+        }
+
+        private void put(Slot slot, Token token)
+        {
+            weight.addAndGet(token.weight);
+            cache.put(slot, token);
+        }
+
+        private void replace(Slot slot, Usage usage)
+        {
+            for (;;)
+            {
+                final Token previous = cache.getIfPresent(slot);
+                if (previous == null || previous.usage != usage) // removed
+                {
+                    return;
+                }
+                final Token token = usage.token();
+                if (token.weight == previous.weight)
+                {
+                    return;
+                }
+                weight.addAndGet(token.weight);
+                if (cache.asMap().replace(slot, previous, token))
+                {
+                    return;
+                }
+                weight.addAndGet(-token.weight);
+            }
+        }
+    }
+
+    private static class Slot
+    {
+        private volatile Node<?> node;
+        private volatile boolean grown;
+        private Usage usage;
+
+        synchronized Usage clear(Usage removed)
         {
-            return cache.get(type);
+            if (usage == removed)
+            {
+                final Usage cleared = usage;
+                usage = null;
+                node = null;
+                cleared();
+                return cleared;
+            }
+            return null;
         }
-        catch (Exception e)
+
+        void cleared()
+        {
+        }
+    }
+
+    // Removes itself from the keyed slots once cleared, so keys don't accumulate.
+    private static class KeyedSlot extends Slot
+    {
+        private final ConcurrentMap<Object, Slot> slots;
+        private final Object key;
+
+        KeyedSlot(ConcurrentMap<Object, Slot> slots, Object key)
+        {
+            this.slots = slots;
+            this.key = key;
+        }
+
+        @Override
+        void cleared()
+        {
+            slots.remove(key, this);
+        }
+    }
+
+    // The weight of a cached tree: its own and the one of the shared parts charged to it.
+    private static class Usage
+    {
+        private final Set<Object> parts = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long own;
+        private long shared;
+        private long growth;
+        private final Set<Object> grownParts = Collections.newSetFromMap(new IdentityHashMap<>());
+        private volatile boolean registered;
+        private boolean detached; // guarded by the shares
+
+        synchronized void grow(long weight, Set<Object> parts)
+        {
+            growth += weight;
+            grownParts.addAll(parts);
+        }
+
+        synchronized long drain(Set<Object> parts)
+        {
+            final long g = growth;
+            growth = 0;
+            parts.addAll(grownParts);
+            grownParts.clear();
+            return g;
+        }
+
+        synchronized void add(long own, long shared)
+        {
+            this.own += own;
+            this.shared += shared;
+        }
+
+        synchronized Token token()
+        {
+            return new Token((int) Math.min(Integer.MAX_VALUE, own + shared), this);
+        }
+    }
+
+    // A shared part, charged to its owner among the trees using it.
+    private static class Share
+    {
+        private final long weight;
+        private final Map<Usage, Slot> users = new LinkedHashMap<>();
+        private Usage owner;
+
+        Share(long weight)
+        {
+            this.weight = weight;
+        }
+    }
+
+    // Only the weight (and the tree it weighs) is kept, so the weak keyed cache doesn't pin the slots (nor their types).
+    private static class Token
+    {
+        private final int weight;
+        private final Usage usage;
+
+        Token(int weight, Usage usage)
         {
-            throw new AlkemyException("Can't create an alkemy tree for The requested type '%s'.", e, type.getName());
+            this.weight = weight;
+            this.usage = usage;
         }
     }
 }
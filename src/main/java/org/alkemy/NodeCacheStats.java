@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A snapshot of the {@link NodeCache} statistics.
+ * <p>
+ * Weights are the estimated retained size in bytes of the cached trees.
+ */
+public class NodeCacheStats
+{
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long loadCount;
+    private final long totalLoadTime;
+    private final long size;
+    private final long weight;
+    private final long maxWeight;
+
+    NodeCacheStats(long hitCount, long missCount, long evictionCount, long loadCount, long totalLoadTime, long size, long weight,
+            long maxWeight)
+    {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTime = totalLoadTime;
+        this.size = size;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Number of lookups which returned an already parsed tree.
+     */
+    public long hitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Number of lookups which required parsing the type.
+     */
+    public long missCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Ratio of lookups which returned an already parsed tree, or 1.0 if there were no lookups.
+     */
+    public double hitRate()
+    {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Number of trees removed from the cache because of the weight budget or expiration.
+     */
+    public long evictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Number of parsed types (successful or not).
+     */
+    public long loadCount()
+    {
+        return loadCount;
+    }
+
+    /**
+     * Total time spent parsing types, in nanoseconds.
+     */
+    public long totalLoadTime()
+    {
+        return totalLoadTime;
+    }
+
+    /**
+     * Average time spent parsing a type, in nanoseconds.
+     */
+    public double averageLoadPenalty()
+    {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * Number of cached trees.
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * Current weight of the cached trees, in bytes.
+     */
+    public long weight()
+    {
+        return weight;
+    }
+
+    /**
+     * Maximum weight the cache can hold before evicting, in bytes.
+     */
+    public long maxWeight()
+    {
+        return maxWeight;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)//
+                .add("hitCount", hitCount)//
+                .add("missCount", missCount)//
+                .add("evictionCount", evictionCount)//
+                .add("loadCount", loadCount)//
+                .add("totalLoadTime", totalLoadTime)//
+                .add("size", size)//
+                .add("weight", weight)//
+                .add("maxWeight", maxWeight)//
+                .toString();
+    }
+}
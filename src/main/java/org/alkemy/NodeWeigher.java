@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.agenttools.Agents;
+import org.alkemy.util.Node;
+
+/**
+ * Estimates the retained size of a parsed tree.
+ * <p>
+ * Walks the object graph reachable from the root (nodes, elements, accessors, spun lambdas, invoker maps, ...) counting each
+ * instance once. Classes, class loaders, annotations and method type descriptors are shared by the JVM and are not accounted.
+ */
+class NodeWeigher
+{
+    private static final int REFERENCE_SIZE = 4; // compressed oops
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int ALIGNMENT = 8;
+
+    private static final boolean AGENT_ATTACHED = isAgentAttached();
+
+    private static final ClassValue<List<Field>> REFERENCE_FIELDS = new ClassValue<List<Field>>()
+    {
+        @Override
+        protected List<Field> computeValue(Class<?> type)
+        {
+            return referenceFields(type);
+        }
+    };
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>()
+    {
+        @Override
+        protected Long computeValue(Class<?> type)
+        {
+            return estimateShallowSize(type);
+        }
+    };
+
+    private NodeWeigher()
+    {
+    }
+
+    static long weigh(Object root)
+    {
+        return weigh(root, o -> false);
+    }
+
+    /**
+     * Weighs the objects reachable from the root without crossing the boundary: objects matching it are neither accounted nor
+     * walked, as they are accounted elsewhere.
+     */
+    static long weigh(Object root, Predicate<Object> boundary)
+    {
+        return weigh(root, boundary, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * Weighs the children just materialized by a node of a lazy tree: the list holding them, the nodes and what their data
+     * retains, without crossing the boundary. The rest of the tree, reachable from the nodes, is not walked.
+     */
+    static long weighBranch(List<? extends Node<?>> children, Predicate<Object> boundary)
+    {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        long size = weigh(children, o -> o instanceof Node || boundary.test(o), visited);
+        for (Node<?> child : children)
+        {
+            size += shallowSize(child);
+            if (child.data() != null)
+            {
+                size += weigh(child.data(), boundary, visited);
+            }
+        }
+        return size;
+    }
+
+    private static long weigh(Object root, Predicate<Object> boundary, Set<Object> visited)
+    {
+        final Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        long size = 0;
+        while (!pending.isEmpty())
+        {
+            final Object o = pending.pop();
+            if (isShared(o) || !visited.add(o) || boundary.test(o))
+            {
+                continue;
+            }
+            size += shallowSize(o);
+
+            final Class<?> type = o.getClass();
+            if (o instanceof MethodHandle)
+            {
+                continue; // lambda forms && member names are interned by the JVM.
+            }
+            else if (o instanceof Collection)
+            {
+                // jdk collections are not reflectively accessible in jdk9+. estimate the backing storage.
+                final Collection<?> c = (Collection<?>) o;
+                size += align(ARRAY_HEADER + (long) c.size() * REFERENCE_SIZE);
+                c.forEach(e -> pushIfNotNull(pending, e));
+            }
+            else if (o instanceof Map)
+            {
+                final Map<?, ?> m = (Map<?, ?>) o;
+                size += align(ARRAY_HEADER + (long) m.size() * (REFERENCE_SIZE + OBJECT_HEADER + 4 * REFERENCE_SIZE));
+                m.forEach((k, v) ->
+                {
+                    pushIfNotNull(pending, k);
+                    pushIfNotNull(pending, v);
+                });
+            }
+            else if (type.isArray())
+            {
+                if (!type.getComponentType().isPrimitive())
+                {
+                    for (int i = 0; i < Array.getLength(o); i++)
+                    {
+                        pushIfNotNull(pending, Array.get(o, i));
+                    }
+                }
+            }
+            else
+            {
+                for (Field f : REFERENCE_FIELDS.get(type))
+                {
+                    try
+                    {
+                        pushIfNotNull(pending, f.get(o));
+                    }
+                    catch (IllegalAccessException e)
+                    {
+                        // not accessible. only the shallow size is accounted.
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private static void pushIfNotNull(Deque<Object> pending, Object o)
+    {
+        if (o != null)
+        {
+            pending.push(o);
+        }
+    }
+
+    private static boolean isShared(Object o)
+    {
+        return o instanceof Class //
+                || o instanceof ClassLoader //
+                || o instanceof Annotation //
+                || o instanceof Enum //
+                || o instanceof MethodType //
+                || o instanceof Thread;
+    }
+
+    private static long shallowSize(Object o)
+    {
+        if (AGENT_ATTACHED)
+        {
+            return Agents.getObjectSize(o);
+        }
+
+        final Class<?> type = o.getClass();
+        if (type.isArray())
+        {
+            final Class<?> component = type.getComponentType();
+            return align(ARRAY_HEADER + (long) Array.getLength(o) * sizeOf(component));
+        }
+        return SHALLOW_SIZES.get(type);
+    }
+
+    private static boolean isAgentAttached()
+    {
+        try
+        {
+            Agents.getObjectSize(new Object());
+            return true;
+        }
+        catch (Throwable e) // no agent attached, sizes are estimated.
+        {
+            return false;
+        }
+    }
+
+    private static List<Field> referenceFields(Class<?> type)
+    {
+        final List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+        {
+            for (Field f : c.getDeclaredFields())
+            {
+                if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive())
+                {
+                    try
+                    {
+                        f.setAccessible(true);
+                        fields.add(f);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        // module encapsulation (jdk9+). only the shallow size is accounted.
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static long estimateShallowSize(Class<?> type)
+    {
+        long size = OBJECT_HEADER;
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+        {
+            for (Field f : c.getDeclaredFields())
+            {
+                if (!Modifier.isStatic(f.getModifiers()))
+                {
+                    size += sizeOf(f.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static int sizeOf(Class<?> type)
+    {
+        if (type == long.class || type == double.class) return 8;
+        else if (type == int.class || type == float.class) return 4;
+        else if (type == short.class || type == char.class) return 2;
+        else if (type == byte.class || type == boolean.class) return 1;
+        else
+            return REFERENCE_SIZE;
+    }
+
+    private static long align(long size)
+    {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
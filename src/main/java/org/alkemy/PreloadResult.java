@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The outcome of a bulk pre-warming of the parsed nodes cache (see {@link Alkemy#preload(java.util.Collection)}).
+ * <p>
+ * A type which cannot be parsed doesn't abort the batch, it is reported in {@link #failures()} instead.
+ */
+public class PreloadResult
+{
+    private final List<Class<?>> loaded;
+    private final Map<Class<?>, Throwable> failures;
+
+    PreloadResult(List<Class<?>> loaded, Map<Class<?>, Throwable> failures)
+    {
+        this.loaded = Collections.unmodifiableList(loaded);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * The types successfully parsed and cached.
+     */
+    public List<Class<?>> loaded()
+    {
+        return loaded;
+    }
+
+    /**
+     * The types which couldn't be parsed, with the cause.
+     */
+    public Map<Class<?>, Throwable> failures()
+    {
+        return failures;
+    }
+
+    public boolean isSuccessful()
+    {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this).add("loaded", loaded.size()).add("failures", failures.keySet()).toString();
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.impl.TypeIndex;
+
+/**
+ * Parses types concurrently in a fork-join pool to pre-warm a {@link NodeCache}.
+ * <p>
+ * Roots are deduplicated here. Nested types shared by several roots are parsed once by the parser, which interns the fragments
+ * of each type for all its trees (see {@link org.alkemy.parse.impl.TypeFragments}).
+ */
+class Preloader
+{
+    private static final int THRESHOLD = 1; // parsing a type dwarfs the task overhead.
+
+    private Preloader()
+    {
+    }
+
+    static PreloadResult preload(Collection<Class<?>> types, Consumer<Class<?>> loader, ForkJoinPool pool)
+    {
+        // each distinct type is parsed once.
+        final List<Class<?>> distinct = new ArrayList<>(new LinkedHashSet<>(types));
+        final Throwable[] failures = new Throwable[distinct.size()];
+        pool.invoke(new PreloadTask(distinct, failures, loader, 0, distinct.size()));
+
+        final List<Class<?>> loaded = new ArrayList<>();
+        final Map<Class<?>, Throwable> failed = new LinkedHashMap<>();
+        for (int i = 0; i < failures.length; i++)
+        {
+            if (failures[i] == null) loaded.add(distinct.get(i));
+            else
+                failed.put(distinct.get(i), failures[i]);
+        }
+        return new PreloadResult(loaded, failed);
+    }
+
+    /**
+     * Returns the concrete classes (including nested ones) of a package and its sub-packages.
+     * <p>
+     * Classes which cannot be loaded from the class loader are skipped.
+     */
+    static Collection<Class<?>> findClasses(String packageName, ClassLoader classLoader)
+    {
+        final String path = packageName.replace('.', '/');
+        final Set<String> classNames = new TreeSet<>();
+        try
+        {
+            final Enumeration<URL> roots = classLoader.getResources(path);
+            while (roots.hasMoreElements())
+            {
+                final URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol()))
+                {
+                    final Path dir = Paths.get(root.toURI());
+                    try (Stream<Path> files = Files.walk(dir))
+                    {
+                        files.map(f -> path + "/" + dir.relativize(f).toString().replace(File.separatorChar, '/'))//
+                                .forEach(name -> addClassName(name, classNames));
+                    }
+                }
+                else if ("jar".equals(root.getProtocol()))
+                {
+                    final JarURLConnection connection = (JarURLConnection) root.openConnection();
+                    connection.setUseCaches(false);
+                    try (JarFile jar = connection.getJarFile())
+                    {
+                        jar.stream().map(JarEntry::getName).filter(name -> name.startsWith(path + "/"))//
+                                .forEach(name -> addClassName(name, classNames));
+                    }
+                }
+            }
+        }
+        catch (IOException | URISyntaxException e)
+        {
+            throw new AlkemyException("Unable to scan the class path for package '%s'.", e, packageName);
+        }
+
+        return loadAll(classNames, classLoader);
+    }
+
+    /**
+     * Returns all the parseable types within the {@link TypeIndex} visible from the class loader.
+     */
+    static Collection<Class<?>> findIndexedClasses(ClassLoader classLoader)
+    {
+        return loadAll(new TreeSet<>(TypeIndex.typeNames(classLoader)), classLoader);
+    }
+
+    private static Collection<Class<?>> loadAll(Collection<String> classNames, ClassLoader classLoader)
+    {
+        final List<Class<?>> classes = new ArrayList<>();
+        for (String className : classNames)
+        {
+            final Class<?> type = load(className, classLoader);
+            if (type != null && isParseable(type))
+            {
+                classes.add(type);
+            }
+        }
+        return classes;
+    }
+
+    private static void addClassName(String resourceName, Set<String> classNames)
+    {
+        if (resourceName.endsWith(".class") && !resourceName.endsWith("package-info.class"))
+        {
+            classNames.add(resourceName.substring(0, resourceName.length() - ".class".length()).replace('/', '.'));
+        }
+    }
+
+    private static Class<?> load(String className, ClassLoader classLoader)
+    {
+        try
+        {
+            return Class.forName(className, false, classLoader);
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return null; // not loadable in this context (i.e. optional dependencies missing).
+        }
+    }
+
+    private static boolean isParseable(Class<?> type)
+    {
+        return !type.isInterface() //
+                && !type.isEnum() //
+                && !type.isAnonymousClass() //
+                && !type.isLocalClass() //
+                && !type.isSynthetic() //
+                && !Modifier.isAbstract(type.getModifiers());
+    }
+
+    static class PreloadTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Class<?>> types;
+        private final Throwable[] failures;
+        private final Consumer<Class<?>> loader;
+        private final int from;
+        private final int to;
+
+        PreloadTask(List<Class<?>> types, Throwable[] failures, Consumer<Class<?>> loader, int from, int to)
+        {
+            this.types = types;
+            this.failures = failures;
+            this.loader = loader;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= THRESHOLD)
+            {
+                for (int i = from; i < to; i++)
+                {
+                    try
+                    {
+                        loader.accept(types.get(i));
+                    }
+                    catch (Throwable e)
+                    {
+                        failures[i] = e;
+                    }
+                }
+            }
+            else
+            {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new PreloadTask(types, failures, loader, from, mid), new PreloadTask(types, failures, loader, mid, to));
+            }
+        }
+    }
+}
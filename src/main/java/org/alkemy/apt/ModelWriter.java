@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.apt;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+import org.alkemy.parse.ArgumentSource;
+import org.alkemy.parse.impl.AlkemyModel;
+
+/**
+ * Writes the {@link AlkemyModel} source of an indexed type: a switch per accessor kind over the type fields, accessed
+ * directly, and the type factories.
+ * <p>
+ * Types which can't be accessed from their own package (private types or fields, or generic types) have no model. Their
+ * fields are accessed through the instrumented or reflected accessors.
+ */
+class ModelWriter
+{
+    private static final String ALKEMY_UTILS = "org.alkemy.util.AlkemyUtils";
+    private static final List<TypeKind> PRIMITIVES = Arrays.asList(TypeKind.DOUBLE, TypeKind.FLOAT, TypeKind.LONG, TypeKind.INT,
+            TypeKind.SHORT, TypeKind.CHAR, TypeKind.BYTE, TypeKind.BOOLEAN);
+
+    private final ProcessingEnvironment env;
+
+    ModelWriter(ProcessingEnvironment env)
+    {
+        this.env = env;
+    }
+
+    /**
+     * Writes the model of the type with the provided fields, if supported. Returns true if written.
+     */
+    boolean write(TypeElement type, List<VariableElement> fields, String[] order) throws IOException
+    {
+        final PackageElement pkg = env.getElementUtils().getPackageOf(type);
+        if (!isSupported(type, fields, pkg))
+        {
+            return false;
+        }
+
+        final String packageName = pkg.getQualifiedName().toString();
+        final String binaryName = env.getElementUtils().getBinaryName(type).toString();
+        final String modelName = binaryName + AlkemyModel.SUFFIX;
+        try (Writer writer = env.getFiler().createSourceFile(modelName, type).openWriter())
+        {
+            writer.write(source(type, packageName, modelName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1),
+                    fields.stream().map(FieldModel::new).collect(Collectors.toList()), order));
+        }
+        return true;
+    }
+
+    private boolean isSupported(TypeElement type, List<VariableElement> fields, PackageElement pkg)
+    {
+        if (type.getKind() != ElementKind.CLASS || !isAccessible(type, pkg))
+        {
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement())
+        {
+            if (!((TypeElement) e).getTypeParameters().isEmpty())
+            {
+                return false;
+            }
+        }
+        for (VariableElement f : fields)
+        {
+            if (f.getModifiers().contains(Modifier.PRIVATE) || !isAccessible(f.asType(), pkg))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(TypeMirror type, PackageElement pkg)
+    {
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return isAccessible(((ArrayType) type).getComponentType(), pkg);
+        }
+        else if (type.getKind() == TypeKind.DECLARED)
+        {
+            return isAccessible((TypeElement) ((DeclaredType) type).asElement(), pkg);
+        }
+        return type.getKind().isPrimitive();
+    }
+
+    private boolean isAccessible(TypeElement type, PackageElement pkg)
+    {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement())
+        {
+            final Set<Modifier> modifiers = e.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)
+                    || (!modifiers.contains(Modifier.PUBLIC) && !env.getElementUtils().getPackageOf(e).equals(pkg)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String source(TypeElement type, String packageName, String simpleName, List<FieldModel> fields, String[] order)
+    {
+        final String typeName = type.getQualifiedName().toString();
+        final StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty())
+        {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+        sb.append("public final class ").append(simpleName).append(" extends ").append(AlkemyModel.class.getName()).append("\n{\n");
+        sb.append("    public ").append(simpleName).append("()\n    {\n");
+        sb.append("        super(new String[] { ").append(fields.stream().map(f -> '"' + f.name + '"').collect(Collectors.joining(", ")))
+                .append(" });\n    }\n");
+
+        appendSwitch(sb, "Object get(int index, Object parent)", fields, f -> true, f -> "return " + f.target(typeName) + ";");
+        appendSwitch(sb, "void set(int index, Object parent, Object value)", fields, f -> !f.isFinal,
+                f -> f.target(typeName) + " = " + f.convert("value") + ";\n            return;");
+        for (TypeKind kind : PRIMITIVES)
+        {
+            final String primitive = kind.name().toLowerCase();
+            final String name = Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+            appendSwitch(sb, primitive + " get" + name + "(int index, Object parent)", fields, f -> f.kind == kind,
+                    f -> "return " + f.target(typeName) + ";");
+            appendSwitch(sb, "void set" + name + "(int index, Object parent, " + primitive + " value)", fields,
+                    f -> f.kind == kind && !f.isFinal, f -> f.target(typeName) + " = value;\n            return;");
+        }
+        appendSwitch(sb, "String getString(int index, Object parent)", fields, f -> f.isString || f.isEnum,
+                f -> "return " + (f.isEnum ? "nameOf(" + f.target(typeName) + ")" : f.target(typeName)) + ";");
+        appendSwitch(sb, "void setString(int index, Object parent, String value)", fields, f -> (f.isString || f.isEnum) && !f.isFinal,
+                f -> f.target(typeName) + " = " + (f.isEnum ? ALKEMY_UTILS + ".toEnum(" + f.type + ".class, value)" : "value")
+                        + ";\n            return;");
+
+        appendNewInstance(sb, type, typeName, fields, order);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /*
+     * switch (index) { case i: <statement of field i> ... default: throw unsupported(index); }
+     */
+    private static void appendSwitch(StringBuilder sb, String signature, List<FieldModel> fields, Predicate<FieldModel> accepts,
+            Function<FieldModel, String> statement)
+    {
+        sb.append("\n    @Override\n    public ").append(signature).append("\n    {\n        switch (index)\n        {\n");
+        for (int i = 0; i < fields.size(); i++)
+        {
+            if (accepts.test(fields.get(i)))
+            {
+                sb.append("        case ").append(i).append(":\n            ").append(statement.apply(fields.get(i))).append("\n");
+            }
+        }
+        sb.append("        default:\n            throw unsupported(index);\n        }\n    }\n");
+    }
+
+    private void appendNewInstance(StringBuilder sb, TypeElement type, String typeName, List<FieldModel> fields, String[] order)
+    {
+        final boolean instantiable = !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (type.getNestingKind() != NestingKind.MEMBER || type.getModifiers().contains(Modifier.STATIC));
+
+        sb.append("\n    @Override\n    public Object newInstance()\n    {\n");
+        if (!instantiable)
+        {
+            sb.append("        throw notInstantiable(").append(typeName).append(".class);\n");
+        }
+        else if (hasDefaultConstructor(type))
+        {
+            sb.append("        return new ").append(typeName).append("();\n");
+        }
+        else
+        {
+            sb.append("        return instantiate(").append(typeName).append(".class);\n");
+        }
+        sb.append("    }\n");
+
+        sb.append("\n    @Override\n    public Object newInstance(Object... args)\n    {\n");
+        if (!instantiable)
+        {
+            sb.append("        throw notInstantiable(").append(typeName).append(".class);\n");
+        }
+        else
+        {
+            sb.append("        final ").append(typeName).append(" instance = (").append(typeName).append(") newInstance();\n");
+            final List<String> names = fields.stream().map(f -> f.name).collect(Collectors.toList());
+            int arg = 0;
+            for (String name : orderedNames(fields, order))
+            {
+                sb.append("        set(").append(names.indexOf(name)).append(", instance, args[").append(arg++).append("]);\n");
+            }
+            sb.append("        return instance;\n");
+        }
+        sb.append("    }\n");
+
+        sb.append("\n    @Override\n    public Object newInstance(").append(ArgumentSource.class.getName()).append(" args)\n    {\n");
+        if (!instantiable)
+        {
+            sb.append("        throw notInstantiable(").append(typeName).append(".class);\n");
+        }
+        else
+        {
+            sb.append("        final ").append(typeName).append(" instance = (").append(typeName).append(") newInstance();\n");
+            for (String name : orderedNames(fields, order))
+            {
+                final FieldModel f = fields.stream().filter(m -> m.name.equals(name)).findFirst().get();
+                sb.append("        instance.").append(name).append(" = ").append(f.next("args")).append(";\n");
+            }
+            sb.append("        return instance;\n");
+        }
+        sb.append("    }\n");
+    }
+
+    /*
+     * The assignable fields, as in the order annotation and then in declaration order.
+     */
+    private static List<String> orderedNames(List<FieldModel> fields, String[] order)
+    {
+        final List<String> assignable = fields.stream().filter(f -> !f.isFinal && !f.isStatic).map(f -> f.name)
+                .collect(Collectors.toList());
+        final List<String> names = new ArrayList<>();
+        if (order != null)
+        {
+            Arrays.stream(order).filter(assignable::contains).forEach(names::add);
+        }
+        assignable.stream().filter(n -> !names.contains(n)).forEach(names::add);
+        return names;
+    }
+
+    private static boolean hasDefaultConstructor(TypeElement type)
+    {
+        for (ExecutableElement ctor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+        {
+            if (ctor.getParameters().isEmpty() && !ctor.getModifiers().contains(Modifier.PRIVATE))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class FieldModel
+    {
+        final String name;
+        final String type;
+        final TypeKind kind;
+        final boolean isStatic;
+        final boolean isFinal;
+        final boolean isEnum;
+        final boolean isString;
+
+        FieldModel(VariableElement f)
+        {
+            final TypeMirror fieldType = f.asType();
+            this.name = f.getSimpleName().toString();
+            this.type = env.getTypeUtils().erasure(fieldType).toString();
+            this.kind = fieldType.getKind();
+            this.isStatic = f.getModifiers().contains(Modifier.STATIC);
+            this.isFinal = f.getModifiers().contains(Modifier.FINAL);
+            this.isEnum = kind == TypeKind.DECLARED && ((DeclaredType) fieldType).asElement().getKind() == ElementKind.ENUM;
+            this.isString = String.class.getName().equals(type);
+        }
+
+        String target(String owner)
+        {
+            return isStatic ? owner + "." + name : "((" + owner + ") parent)." + name;
+        }
+
+        /*
+         * The next argument of the source, with no boxing for primitives.
+         */
+        String next(String source)
+        {
+            if (kind.isPrimitive()) return source + ".next" + Character.toUpperCase(type.charAt(0)) + type.substring(1) + "()";
+            else
+                return convert(source + ".nextObject()");
+        }
+
+        /*
+         * As the instrumented accessors, numbers are converted as in a cast.
+         */
+        String convert(String value)
+        {
+            if (kind == TypeKind.BOOLEAN) return "(Boolean) " + value;
+            else if (kind == TypeKind.CHAR) return "(Character) " + value;
+            else if (kind.isPrimitive()) return "((Number) " + value + ")." + type + "Value()";
+            else if (isEnum) return "(" + type + ") " + ALKEMY_UTILS + ".toEnum(" + type + ".class, " + value + ")";
+            else if (Object.class.getName().equals(type)) return value; // a cast would be redundant.
+            else
+                return "(" + type + ") " + value;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.apt;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.alkemy.annotations.AlkemyLeaf;
+import org.alkemy.annotations.Order;
+import org.alkemy.parse.impl.AlkemyModel;
+import org.alkemy.parse.impl.TypeIndex;
+import org.alkemy.parse.impl.TypeIndex.Entry;
+
+/**
+ * Writes the {@link TypeIndex} of the compiled alkemizable types into {@link TypeIndex#RESOURCE}, and generates their
+ * {@link AlkemyModel} (unless the {@value #MODELS_OPTION} option is set to false).
+ * <p>
+ * The index is merged with the one found in the output, if any, so incremental builds (compiling only the changed types)
+ * keep the entries of the types not compiled again, as long as they still exist.
+ * <p>
+ * A type is indexed if it declares leaves (fields or methods annotated with an {@link AlkemyLeaf} qualified annotation) or
+ * nodes (fields whose type, or component type for arrays and collections, contain leaves at any depth).
+ * <p>
+ * Opt-in. Not registered as a service, so it only runs if named explicitly, i.e. {@code javac -processor
+ * org.alkemy.apt.TypeIndexProcessor}, or in the {@code annotationProcessors} of the maven-compiler-plugin. It inspects every
+ * type (leaves are qualified by user defined annotations) and claims none, so other processors are not affected.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(TypeIndexProcessor.MODELS_OPTION)
+public class TypeIndexProcessor extends AbstractProcessor
+{
+    public static final String MODELS_OPTION = "alkemy.models";
+
+    private final Map<String, Entry> index = new TreeMap<>();
+    private final Set<String> compiled = new HashSet<>();
+    private final Map<TypeElement, Boolean> hasLeaves = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        if (roundEnv.processingOver())
+        {
+            write();
+        }
+        else
+        {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+            {
+                index(type);
+            }
+        }
+        return false;
+    }
+
+    private void index(TypeElement type)
+    {
+        ElementFilter.typesIn(type.getEnclosedElements()).forEach(this::index);
+        compiled.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+
+        final List<String> leaves = new ArrayList<>();
+        final List<String> nodes = new ArrayList<>();
+        final List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement f : ElementFilter.fieldsIn(type.getEnclosedElements()))
+        {
+            if (isLeaf(f))
+            {
+                leaves.add(f.getSimpleName().toString());
+                fields.add(f);
+            }
+            else if (hasLeaves(componentType(f.asType()), new HashSet<>()))
+            {
+                nodes.add(f.getSimpleName().toString());
+                fields.add(f);
+            }
+        }
+
+        final List<String> methods = ElementFilter.methodsIn(type.getEnclosedElements()).stream() //
+                .filter(this::isLeaf) //
+                .map(this::signature) //
+                .collect(Collectors.toList());
+
+        if (!leaves.isEmpty() || !nodes.isEmpty() || !methods.isEmpty())
+        {
+            final Order order = type.getAnnotation(Order.class);
+            final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            index.put(binaryName, Entry.create(leaves, nodes, methods, order != null ? order.value() : null));
+            writeModel(type, fields, order != null ? order.value() : null);
+        }
+    }
+
+    private void writeModel(TypeElement type, List<VariableElement> fields, String[] order)
+    {
+        if ("false".equalsIgnoreCase(processingEnv.getOptions().get(MODELS_OPTION)))
+        {
+            return;
+        }
+
+        try
+        {
+            new ModelWriter(processingEnv).write(type, fields, order);
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write the alkemy model: " + e.getMessage(), type);
+        }
+    }
+
+    /*
+     * As the runtime DeepLeafSearch: a type has leaves if any of its declared fields is a leaf or its type has leaves, or if its
+     * superclass has leaves.
+     */
+    private boolean hasLeaves(TypeMirror type, Set<TypeElement> visiting)
+    {
+        if (type.getKind() != TypeKind.DECLARED)
+        {
+            return false;
+        }
+
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        final Boolean known = hasLeaves.get(element);
+        if (known != null)
+        {
+            return known;
+        }
+        else if (element.getQualifiedName().toString().startsWith("java.") || !visiting.add(element))
+        {
+            return false;
+        }
+
+        boolean found = hasLeaves(element.getSuperclass(), visiting); // inherited leaves
+        for (VariableElement f : ElementFilter.fieldsIn(element.getEnclosedElements()))
+        {
+            if (found || isLeaf(f) || hasLeaves(f.asType(), visiting) || hasLeaves(componentType(f.asType()), visiting))
+            {
+                found = true;
+                break;
+            }
+        }
+        visiting.remove(element);
+        if (found || visiting.isEmpty())
+        {
+            hasLeaves.put(element, found); // a negative within a cycle depends on the types being visited.
+        }
+        return found;
+    }
+
+    /*
+     * As Types#getComponentType(Field), falling back to the type itself.
+     */
+    private TypeMirror componentType(TypeMirror type)
+    {
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return ((ArrayType) type).getComponentType();
+        }
+
+        TypeMirror element = typeArgument(type, Collection.class.getName(), 0);
+        if (element == null)
+        {
+            element = typeArgument(type, Map.class.getName(), 1);
+        }
+        return element != null ? componentType(upperBound(element)) : type;
+    }
+
+    /*
+     * The actual type argument of the target type as seen from the type, or null if unknown.
+     */
+    private TypeMirror typeArgument(TypeMirror type, String target, int index)
+    {
+        if (type.getKind() != TypeKind.DECLARED)
+        {
+            return null;
+        }
+
+        final DeclaredType declared = (DeclaredType) type;
+        if (((TypeElement) declared.asElement()).getQualifiedName().contentEquals(target))
+        {
+            return declared.getTypeArguments().isEmpty() ? null : declared.getTypeArguments().get(index);
+        }
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type))
+        {
+            final TypeMirror argument = typeArgument(supertype, target, index);
+            if (argument != null)
+            {
+                return argument;
+            }
+        }
+        return null;
+    }
+
+    private TypeMirror upperBound(TypeMirror type)
+    {
+        if (type.getKind() == TypeKind.WILDCARD)
+        {
+            final TypeMirror bound = ((WildcardType) type).getExtendsBound();
+            return bound != null ? upperBound(bound) : type;
+        }
+        else if (type.getKind() == TypeKind.TYPEVAR)
+        {
+            return upperBound(((TypeVariable) type).getUpperBound());
+        }
+        return type;
+    }
+
+    private boolean isLeaf(Element e)
+    {
+        for (AnnotationMirror a : e.getAnnotationMirrors())
+        {
+            final Element annotationType = a.getAnnotationType().asElement();
+            if (annotationType.getKind() == ElementKind.ANNOTATION_TYPE && annotationType.getAnnotation(AlkemyLeaf.class) != null)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * As TypeIndex#signature(Method).
+     */
+    private String signature(ExecutableElement m)
+    {
+        return m.getParameters().stream() //
+                .map(p -> processingEnv.getTypeUtils().erasure(p.asType()).toString()) //
+                .collect(Collectors.joining(",", m.getSimpleName() + "(", ")"));
+    }
+
+    private void write()
+    {
+        final Map<String, Entry> previous = previousIndex();
+        if (index.isEmpty() && previous.isEmpty())
+        {
+            return;
+        }
+
+        // incremental builds only compile the changed types. keep the entries of the others, if they still exist.
+        previous.forEach((name, entry) ->
+        {
+            if (!compiled.contains(name) && exists(name))
+            {
+                index.put(name, entry);
+            }
+        });
+
+        try
+        {
+            final FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    TypeIndex.RESOURCE);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8))
+            {
+                TypeIndex.write(writer, index);
+            }
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write the alkemy type index: " + e.getMessage());
+        }
+    }
+
+    /*
+     * The index written by a previous compilation into the same output, if any.
+     */
+    private Map<String, Entry> previousIndex()
+    {
+        try
+        {
+            final FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    TypeIndex.RESOURCE);
+            try (Reader reader = new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))
+            {
+                return TypeIndex.read(reader);
+            }
+        }
+        catch (IOException e) // none, i.e. a clean build.
+        {
+            return Collections.emptyMap();
+        }
+    }
+
+    private boolean exists(String binaryName)
+    {
+        return processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+    }
+}
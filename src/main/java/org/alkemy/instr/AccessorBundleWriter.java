@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.instr;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ATHROW;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Writes a single class with the accessors of all the fields of a type. The class extends
+ * {@code org.alkemy.parse.impl.AccessorBundle} and dispatches each access by field index either, to the getters and setters
+ * appended by the {@link GetterSetterWriter} to instrumented types, or directly to the fields of non instrumented types.
+ */
+public class AccessorBundleWriter
+{
+    private static final String BUNDLE = "org/alkemy/parse/impl/AccessorBundle";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String STRING = "java/lang/String";
+    private static final String ALKEMY_UTILS = "org/alkemy/util/AlkemyUtils";
+    private static final String GETTER_DESC = "(IL" + OBJECT + ";)";
+    private static final Class<?>[] PRIMITIVES = { double.class, float.class, long.class, int.class, short.class, char.class,
+            byte.class, boolean.class };
+
+    private AccessorBundleWriter()
+    {
+    }
+
+    /**
+     * Returns the bytecode of the bundle. Every field must be accessible through its alkemizer getter and setter.
+     */
+    public static byte[] write(String className, List<Field> fields)
+    {
+        return write(className, fields, false);
+    }
+
+    /**
+     * Returns the bytecode of a bundle accessing the fields directly, with no boxing for primitive accesses. The bundle must
+     * be defined in the package (and class loader) of the declaring type, and every field must be non private and non final.
+     */
+    public static byte[] writeFieldAccess(String className, List<Field> fields)
+    {
+        return write(className, fields, true);
+    }
+
+    private static byte[] write(String className, List<Field> fields, boolean direct)
+    {
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS)
+        {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2)
+            {
+                return OBJECT; // branches never merge different types.
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, className, null, BUNDLE, null);
+
+        appendConstructor(cw);
+        appendSwitch(cw, "get", GETTER_DESC + "L" + OBJECT + ";", fields, f -> true, (mv, f) ->
+        {
+            appendGet(mv, f, f.getType(), direct);
+            box(mv, f.getType());
+            mv.visitInsn(ARETURN);
+        });
+        appendSwitch(cw, "set", GETTER_DESC.replace(")", "L" + OBJECT + ";)V"), fields, f -> true, (mv, f) -> appendSet(mv, f,
+                f.getType(), direct, v ->
+                {
+                    v.visitVarInsn(ALOAD, 3);
+                    unbox(v, f.getType());
+                }));
+        for (Class<?> primitive : PRIMITIVES)
+        {
+            final String desc = Type.getDescriptor(primitive);
+            final String name = AlkemizerUtils.camelUp(primitive.getName());
+            appendSwitch(cw, "get" + name, GETTER_DESC + desc, fields, f -> f.getType() == primitive, (mv, f) ->
+            {
+                appendGet(mv, f, primitive, direct);
+                mv.visitInsn(Type.getType(primitive).getOpcode(IRETURN));
+            });
+            appendSwitch(cw, "set" + name, GETTER_DESC.replace(")", desc + ")V"), fields, f -> f.getType() == primitive, (mv, f) -> appendSet(
+                    mv, f, primitive, direct, v -> v.visitVarInsn(Type.getType(primitive).getOpcode(ILOAD), 3)));
+        }
+        appendSwitch(cw, "getString", GETTER_DESC + "L" + STRING + ";", fields, f -> isString(f) || f.getType().isEnum(), (mv, f) ->
+        {
+            appendGet(mv, f, f.getType(), direct);
+            if (f.getType().isEnum())
+            {
+                mv.visitMethodInsn(INVOKESTATIC, BUNDLE, "nameOf", "(Ljava/lang/Enum;)L" + STRING + ";", false);
+            }
+            mv.visitInsn(ARETURN);
+        });
+        appendSwitch(cw, "setString", GETTER_DESC.replace(")", "L" + STRING + ";)V"), fields, f -> isString(f)
+                || (direct ? f.getType().isEnum() : hasStringSetter(f)), (mv, f) -> appendSet(mv, f, String.class, direct, v -> v
+                        .visitVarInsn(ALOAD, 3)));
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void appendConstructor(ClassWriter cw)
+    {
+        final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "([L" + STRING + ";)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, BUNDLE, "<init>", "([L" + STRING + ";)V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /*
+     * switch (index) { case i: <accessor of field i> ... default: throw unsupported(index); }
+     */
+    private static void appendSwitch(ClassWriter cw, String name, String desc, List<Field> fields, Predicate<Field> accepts,
+            BiConsumer<MethodVisitor, Field> accessor)
+    {
+        final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, desc, null, null);
+        mv.visitCode();
+
+        final Label unsupported = new Label();
+        final Label[] cases = new Label[fields.size()];
+        for (int i = 0; i < cases.length; i++)
+        {
+            cases[i] = accepts.test(fields.get(i)) ? new Label() : unsupported;
+        }
+        if (cases.length > 0)
+        {
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitTableSwitchInsn(0, cases.length - 1, unsupported, cases);
+            for (int i = 0; i < cases.length; i++)
+            {
+                if (cases[i] != unsupported)
+                {
+                    mv.visitLabel(cases[i]);
+                    accessor.accept(mv, fields.get(i));
+                }
+            }
+        }
+        mv.visitLabel(unsupported);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ILOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, BUNDLE, "unsupported", "(I)Ljava/lang/RuntimeException;", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void appendGet(MethodVisitor mv, Field f, Class<?> type, boolean direct)
+    {
+        final String owner = Type.getInternalName(f.getDeclaringClass());
+        if (direct)
+        {
+            if (Modifier.isStatic(f.getModifiers()))
+            {
+                mv.visitFieldInsn(GETSTATIC, owner, f.getName(), Type.getDescriptor(type));
+            }
+            else
+            {
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitTypeInsn(CHECKCAST, owner);
+                mv.visitFieldInsn(GETFIELD, owner, f.getName(), Type.getDescriptor(type));
+            }
+            return;
+        }
+
+        final String getter = AlkemizerUtils.getGetterName(f.getName());
+        if (Modifier.isStatic(f.getModifiers()))
+        {
+            mv.visitMethodInsn(INVOKESTATIC, owner, getter, "()" + Type.getDescriptor(type), false);
+        }
+        else
+        {
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            mv.visitMethodInsn(INVOKEVIRTUAL, owner, getter, "()" + Type.getDescriptor(type), false);
+        }
+    }
+
+    private static void appendSet(MethodVisitor mv, Field f, Class<?> type, boolean direct, Consumer<MethodVisitor> loadValue)
+    {
+        final String owner = Type.getInternalName(f.getDeclaringClass());
+        if (direct)
+        {
+            final Consumer<MethodVisitor> loadFieldValue = type == String.class && f.getType().isEnum() ? v ->
+            {
+                v.visitLdcInsn(Type.getType(f.getType()));
+                loadValue.accept(v);
+                v.visitMethodInsn(INVOKESTATIC, ALKEMY_UTILS, "toEnum", "(Ljava/lang/Class;L" + STRING + ";)Ljava/lang/Enum;", false);
+                v.visitTypeInsn(CHECKCAST, Type.getInternalName(f.getType()));
+            } : loadValue;
+            if (Modifier.isStatic(f.getModifiers()))
+            {
+                loadFieldValue.accept(mv);
+                mv.visitFieldInsn(PUTSTATIC, owner, f.getName(), Type.getDescriptor(f.getType()));
+            }
+            else
+            {
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitTypeInsn(CHECKCAST, owner);
+                loadFieldValue.accept(mv);
+                mv.visitFieldInsn(PUTFIELD, owner, f.getName(), Type.getDescriptor(f.getType()));
+            }
+            mv.visitInsn(RETURN);
+            return;
+        }
+
+        final String setter = AlkemizerUtils.getSetterName(f.getName());
+        if (Modifier.isStatic(f.getModifiers()))
+        {
+            loadValue.accept(mv);
+            mv.visitMethodInsn(INVOKESTATIC, owner, setter, "(" + Type.getDescriptor(type) + ")V", false);
+        }
+        else
+        {
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            loadValue.accept(mv);
+            mv.visitMethodInsn(INVOKEVIRTUAL, owner, setter, "(" + Type.getDescriptor(type) + ")V", false);
+        }
+        mv.visitInsn(RETURN);
+    }
+
+    private static void box(MethodVisitor mv, Class<?> type)
+    {
+        if (type.isPrimitive())
+        {
+            final String wrapper = Type.getInternalName(wrapperOf(type));
+            mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + Type.getDescriptor(type) + ")L" + wrapper + ";", false);
+        }
+    }
+
+    /*
+     * Numbers are converted as in a cast, (Number) value.intValue().
+     */
+    private static void unbox(MethodVisitor mv, Class<?> type)
+    {
+        if (type == boolean.class || type == char.class)
+        {
+            final String wrapper = Type.getInternalName(wrapperOf(type));
+            mv.visitTypeInsn(CHECKCAST, wrapper);
+            mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+        }
+        else if (type.isPrimitive())
+        {
+            mv.visitTypeInsn(CHECKCAST, "java/lang/Number");
+            mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+        }
+        else if (type != Object.class)
+        {
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+        }
+    }
+
+    private static boolean isString(Field f)
+    {
+        return f.getType() == String.class;
+    }
+
+    private static boolean hasStringSetter(Field f)
+    {
+        try
+        {
+            f.getDeclaringClass().getDeclaredMethod(AlkemizerUtils.getSetterName(f.getName()), String.class);
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    private static Class<?> wrapperOf(Class<?> primitive)
+    {
+        if (primitive == double.class) return Double.class;
+        else if (primitive == float.class) return Float.class;
+        else if (primitive == long.class) return Long.class;
+        else if (primitive == int.class) return Integer.class;
+        else if (primitive == short.class) return Short.class;
+        else if (primitive == char.class) return Character.class;
+        else if (primitive == byte.class) return Byte.class;
+        else
+            return Boolean.class;
+    }
+}
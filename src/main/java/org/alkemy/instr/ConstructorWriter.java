@@ -58,6 +58,9 @@ public class ConstructorWriter
     public static final String CREATE_DEFAULT = "create$$default";
     public static final String INSTATIATOR = "obj$$instantiator";
     public static final String CREATE_ARGS = "create$$args";
+    public static final String CREATE_SOURCE = "create$$source";
+
+    private static final String ARGUMENT_SOURCE = "org/alkemy/parse/ArgumentSource";
 
     private ConstructorWriter()
     {
@@ -141,6 +144,80 @@ public class ConstructorWriter
         mv.visitEnd();
     }
 
+    /*
+     * As create$$args, taking the arguments from an org.alkemy.parse.ArgumentSource with no boxing.
+     */
+    public static void appendCreateSource(ClassWriter cw, String className, List<String> orderedNames,
+            Map<String, FieldProperties> fieldMap, boolean defaultCtor)
+    {
+        final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC + ACC_STATIC, CREATE_SOURCE, //
+                "(L" + ARGUMENT_SOURCE + ";)" + AlkemizerUtils.toDescFromClassName(className), null, null);
+
+        mv.visitCode();
+
+        if (defaultCtor)
+        {
+            mv.visitTypeInsn(NEW, className);
+            mv.visitInsn(DUP);
+            mv.visitMethodInsn(INVOKESPECIAL, className, "<init>", "()V", false);
+            mv.visitVarInsn(ASTORE, 1);
+        }
+        else
+        {
+            mv.visitMethodInsn(INVOKESTATIC, className, CREATE_DEFAULT, //
+                    "()" + AlkemizerUtils.toDescFromClassName(className), false);
+            mv.visitVarInsn(ASTORE, 1);
+        }
+
+        for (String name : orderedNames)
+        {
+            final FieldProperties props = fieldMap.get(name);
+
+            mv.visitVarInsn(ALOAD, 1);
+            if (props.isEnum)
+            {
+                mv.visitLdcInsn(Type.getType(props.desc));
+            }
+            mv.visitVarInsn(ALOAD, 0);
+
+            final String next = getSourceMethodForDesc(props.desc);
+            if (next != null)
+            {
+                mv.visitMethodInsn(INVOKEINTERFACE, ARGUMENT_SOURCE, next, "()" + props.desc, true);
+            }
+            else
+            {
+                mv.visitMethodInsn(INVOKEINTERFACE, ARGUMENT_SOURCE, "nextObject", "()Ljava/lang/Object;", true);
+                if (props.isEnum)
+                {
+                    mv.visitMethodInsn(INVOKESTATIC, "org/alkemy/instr/AlkemizerUtils$Proxy", "toEnum",
+                            "(Ljava/lang/Class;Ljava/lang/Object;)Ljava/lang/Object;", false);
+                }
+                mv.visitTypeInsn(CHECKCAST, getCastClassForDesc(props.desc).name);
+            }
+            mv.visitFieldInsn(PUTFIELD, className, name, props.desc);
+        }
+
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static String getSourceMethodForDesc(String desc)
+    {
+        if ("D".equals(desc)) return "nextDouble";
+        else if ("F".equals(desc)) return "nextFloat";
+        else if ("J".equals(desc)) return "nextLong";
+        else if ("I".equals(desc)) return "nextInt";
+        else if ("S".equals(desc)) return "nextShort";
+        else if ("B".equals(desc)) return "nextByte";
+        else if ("C".equals(desc)) return "nextChar";
+        else if ("Z".equals(desc)) return "nextBoolean";
+        else
+            return null;
+    }
+
     private static ClassCaster getCastClassForDesc(String desc)
     {
         if ("D".equals(desc))
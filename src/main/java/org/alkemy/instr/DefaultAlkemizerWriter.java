@@ -105,6 +105,7 @@ public class DefaultAlkemizerWriter extends ClassVisitor
         
         ConstructorWriter.appendCreateDefault(cw, className, defaultCtor);
         ConstructorWriter.appendCreateArgs(cw, className, orderedFields, fieldMap, defaultCtor);
+        ConstructorWriter.appendCreateSource(cw, className, orderedFields, fieldMap, defaultCtor);
         GetterSetterWriter.appendGetters(cw, className, orderedFields, fieldMap, methodMap);
         GetterSetterWriter.appendSetters(cw, className, orderedFields, fieldMap, methodMap);
 
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.instr;
+
+import static org.objectweb.asm.Opcodes.AASTORE;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DASTORE;
+import static org.objectweb.asm.Opcodes.F2D;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.LASTORE;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Writes a row reader, a class extending {@code org.alkemy.parse.impl.RowReader} which reads all the given fields of an
+ * instance in a single straight-line method, either through the getters appended by the {@link GetterSetterWriter} or
+ * directly.
+ */
+public class RowReaderWriter
+{
+    private static final String ROW_READER = "org/alkemy/parse/impl/RowReader";
+    private static final String BYTE_BUFFER = "java/nio/ByteBuffer";
+    private static final String OBJECT = "java/lang/Object";
+
+    private RowReaderWriter()
+    {
+    }
+
+    /**
+     * Returns the bytecode of the reader. The fields are read through their getter if accepted by {@code viaGetter}, otherwise
+     * they must be accessible from the package of the reader.
+     */
+    public static byte[] write(String className, List<Field> fields, Predicate<Field> viaGetter)
+    {
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS)
+        {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2)
+            {
+                return OBJECT; // straight-line, no branches.
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, className, null, ROW_READER, null);
+
+        appendConstructor(cw, fields);
+        appendRead(cw, fields, viaGetter);
+        appendWrite(cw, fields, viaGetter);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void appendConstructor(ClassWriter cw, List<Field> fields)
+    {
+        final long longs = fields.stream().filter(f -> isLong(f.getType())).count();
+        final long doubles = fields.stream().filter(f -> isDouble(f.getType())).count();
+        final long objects = fields.stream().filter(f -> !f.getType().isPrimitive()).count();
+        final boolean binary = fields.stream().allMatch(f -> isBinary(f.getType()));
+
+        final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitLdcInsn((int) longs);
+        mv.visitLdcInsn((int) doubles);
+        mv.visitLdcInsn((int) objects);
+        mv.visitInsn(binary ? ICONST_1 : ICONST_0);
+        mv.visitMethodInsn(INVOKESPECIAL, ROW_READER, "<init>", "(IIIZ)V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /*
+     * longs[l++] = instance.f0; doubles[d++] = instance.f1; objects[o++] = instance.f2; ...
+     */
+    private static void appendRead(ClassWriter cw, List<Field> fields, Predicate<Field> viaGetter)
+    {
+        final MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "read", "(L" + OBJECT + ";[J[D[L" + OBJECT + ";)V", null, null);
+        mv.visitCode();
+        int l = 0, d = 0, o = 0;
+        for (Field f : fields)
+        {
+            final Class<?> type = f.getType();
+            if (isLong(type))
+            {
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(l++);
+                appendGet(mv, f, viaGetter);
+                if (type != long.class)
+                {
+                    mv.visitInsn(I2L);
+                }
+                mv.visitInsn(LASTORE);
+            }
+            else if (isDouble(type))
+            {
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitLdcInsn(d++);
+                appendGet(mv, f, viaGetter);
+                if (type == float.class)
+                {
+                    mv.visitInsn(F2D);
+                }
+                mv.visitInsn(DASTORE);
+            }
+            else
+            {
+                mv.visitVarInsn(ALOAD, 4);
+                mv.visitLdcInsn(o++);
+                appendGet(mv, f, viaGetter);
+                mv.visitInsn(AASTORE);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /*
+     * buffer.putX(instance.f0); ...
+     */
+    private static void appendWrite(ClassWriter cw, List<Field> fields, Predicate<Field> viaGetter)
+    {
+        final MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, "write", "(L" + OBJECT + ";L" + BYTE_BUFFER + ";)V", null, null);
+        mv.visitCode();
+        if (fields.stream().allMatch(f -> isBinary(f.getType()))) // otherwise never called.
+        {
+            for (Field f : fields)
+            {
+                final Class<?> type = f.getType();
+                mv.visitVarInsn(ALOAD, 2);
+                appendGet(mv, f, viaGetter);
+                if (type == String.class)
+                {
+                    mv.visitMethodInsn(INVOKESTATIC, ROW_READER, "putString", "(L" + BYTE_BUFFER + ";Ljava/lang/String;)V", false);
+                }
+                else if (type.isEnum())
+                {
+                    mv.visitMethodInsn(INVOKESTATIC, ROW_READER, "putEnum", "(L" + BYTE_BUFFER + ";Ljava/lang/Enum;)V", false);
+                }
+                else
+                {
+                    mv.visitMethodInsn(INVOKEVIRTUAL, BYTE_BUFFER, putterOf(type), "(" + bufferDescriptorOf(type) + ")L" + BYTE_BUFFER
+                            + ";", false);
+                    mv.visitInsn(POP);
+                }
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void appendGet(MethodVisitor mv, Field f, Predicate<Field> viaGetter)
+    {
+        final String owner = Type.getInternalName(f.getDeclaringClass());
+        final String desc = Type.getDescriptor(f.getType());
+        final boolean isStatic = Modifier.isStatic(f.getModifiers());
+        if (!isStatic)
+        {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, owner);
+        }
+        if (viaGetter.test(f))
+        {
+            mv.visitMethodInsn(isStatic ? INVOKESTATIC : INVOKEVIRTUAL, owner, AlkemizerUtils.getGetterName(f.getName()), "()" + desc,
+                    false);
+        }
+        else
+        {
+            mv.visitFieldInsn(isStatic ? GETSTATIC : GETFIELD, owner, f.getName(), desc);
+        }
+    }
+
+    private static String putterOf(Class<?> type)
+    {
+        if (type == long.class) return "putLong";
+        else if (type == int.class) return "putInt";
+        else if (type == short.class) return "putShort";
+        else if (type == char.class) return "putChar";
+        else if (type == double.class) return "putDouble";
+        else if (type == float.class) return "putFloat";
+        else
+            return "put"; // byte && boolean
+    }
+
+    private static String bufferDescriptorOf(Class<?> type)
+    {
+        return type == boolean.class ? "B" : Type.getDescriptor(type);
+    }
+
+    private static boolean isLong(Class<?> type)
+    {
+        return type.isPrimitive() && !isDouble(type);
+    }
+
+    private static boolean isDouble(Class<?> type)
+    {
+        return type == double.class || type == float.class;
+    }
+
+    private static boolean isBinary(Class<?> type)
+    {
+        return type.isPrimitive() || type == String.class || type.isEnum();
+    }
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse;
+
+/**
+ * A sequence of constructor arguments, consumed in the {@code @Order} (or declaration) order of the fields, with typed
+ * accessors so primitive arguments are never boxed (see {@link NodeFactory#newInstance(ArgumentSource)}).
+ * <p>
+ * Enum arguments are read with {@link #nextObject()}, and can be either the enum value or its name.
+ */
+public interface ArgumentSource
+{
+    double nextDouble();
+
+    float nextFloat();
+
+    long nextLong();
+
+    int nextInt();
+
+    short nextShort();
+
+    char nextChar();
+
+    byte nextByte();
+
+    boolean nextBoolean();
+
+    Object nextObject();
+}
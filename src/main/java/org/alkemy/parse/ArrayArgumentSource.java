@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse;
+
+/**
+ * An {@link ArgumentSource} over a {@code long[]}, a {@code double[]} and an {@code Object[]}, laid out as read by the
+ * {@link org.alkemy.parse.impl.RowReader}: integral, char and boolean (non 0 is true) arguments are taken in sequence from
+ * the longs, float and double arguments from the doubles, and any other from the objects.
+ * <p>
+ * Not thread safe. The source can be reused after a {@link #reset()}.
+ */
+public class ArrayArgumentSource implements ArgumentSource
+{
+    private final long[] longs;
+    private final double[] doubles;
+    private final Object[] objects;
+    private int l, d, o;
+
+    private ArrayArgumentSource(long[] longs, double[] doubles, Object[] objects)
+    {
+        this.longs = longs;
+        this.doubles = doubles;
+        this.objects = objects;
+    }
+
+    public static ArrayArgumentSource create(long[] longs, double[] doubles, Object[] objects)
+    {
+        return new ArrayArgumentSource(longs, doubles, objects);
+    }
+
+    /**
+     * Restarts the sequence from the first argument of each array.
+     */
+    public ArrayArgumentSource reset()
+    {
+        l = d = o = 0;
+        return this;
+    }
+
+    @Override
+    public double nextDouble()
+    {
+        return doubles[d++];
+    }
+
+    @Override
+    public float nextFloat()
+    {
+        return (float) doubles[d++];
+    }
+
+    @Override
+    public long nextLong()
+    {
+        return longs[l++];
+    }
+
+    @Override
+    public int nextInt()
+    {
+        return (int) longs[l++];
+    }
+
+    @Override
+    public short nextShort()
+    {
+        return (short) longs[l++];
+    }
+
+    @Override
+    public char nextChar()
+    {
+        return (char) longs[l++];
+    }
+
+    @Override
+    public byte nextByte()
+    {
+        return (byte) longs[l++];
+    }
+
+    @Override
+    public boolean nextBoolean()
+    {
+        return longs[l++] != 0;
+    }
+
+    @Override
+    public Object nextObject()
+    {
+        return objects[o++];
+    }
+}
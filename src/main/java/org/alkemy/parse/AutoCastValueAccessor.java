@@ -40,11 +40,22 @@ public interface AutoCastValueAccessor
      * <ul>
      * <li>If the type is an array. Equivalent to {@link Class#getComponentType()}
      * <li>If the type is a collection, returns the collection's defined generic type.
+     * <li>If the type is a map, returns the map's defined value type.
      * <li>Otherwise returns null.
      * </ul>
+     * Nested containers resolve to their innermost element type (see {@link #isNestedContainer()}).
      */
     Class<?> componentType();
 
+    /**
+     * True if the value is a collection or a map of collections or maps, i.e. {@code List<List<Foo>>}. Its elements are then
+     * not of the {@link #componentType()}.
+     */
+    default boolean isNestedContainer()
+    {
+        return false;
+    }
+
     /**
      * Returns the value.
      * 
@@ -22,6 +22,7 @@
 package org.alkemy.parse;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,8 +40,10 @@ public class InterfaceDefaultInstance
 
     static
     {
+        supported.put(Collection.class, ArrayList.class);
         supported.put(List.class, ArrayList.class);
         supported.put(Set.class, HashSet.class);
+        supported.put(Map.class, HashMap.class);
     }
 
     public static Class<?> get(Class<?> clazz)
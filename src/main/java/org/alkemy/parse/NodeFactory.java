@@ -23,6 +23,7 @@ package org.alkemy.parse;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.alkemy.exception.AccessException;
 import org.alkemy.exception.AlkemyException;
@@ -32,10 +33,11 @@ import com.google.common.collect.Lists;
 public interface NodeFactory extends AutoCastValueAccessor
 {
     /**
-     * if {@link #isCollection()}, then adds the values to it.
+     * if {@link #isCollection()}, then adds the values to it. Values not of the {@link #componentType()} are not added.
      * 
      * @throws AccessException
-     *             If an error occurs while adding the values.
+     *             If an error occurs while adding the values, or if the collection is a nested container (its elements are
+     *             not of the component type).
      */
     @SuppressWarnings("unchecked")
     default <E> void addAll(Object parent, E first, E... others) throws AlkemyException {
@@ -44,7 +46,11 @@ public interface NodeFactory extends AutoCastValueAccessor
     
     @SuppressWarnings("unchecked")
     default <E> void addAll(Object parent, List<E> others) throws AlkemyException {
-        if (isCollection() && !others.isEmpty() && componentType().isInstance(others.get(0)))
+        if (isCollection() && isNestedContainer())
+        {
+            throw new AccessException("Nested container '%s' can't be populated with component type values.", valueName());
+        }
+        if (isCollection() && !others.isEmpty() && others.stream().allMatch(componentType()::isInstance))
         {
             final Collection<E> c = get(parent, Collection.class);
             if (c != null)
@@ -54,6 +60,31 @@ public interface NodeFactory extends AutoCastValueAccessor
         }
     }
     
+    /**
+     * If the value is a {@link Map}, then puts the entries into it. Values not of the {@link #componentType()} are not added.
+     * 
+     * @throws AccessException
+     *             If an error occurs while adding the entries, or if the map is a nested container (its values are not of the
+     *             component type).
+     */
+    @SuppressWarnings("unchecked")
+    default <K, V> void putAll(Object parent, Map<K, V> entries) throws AlkemyException
+    {
+        final boolean isMap = Map.class.isAssignableFrom(type());
+        if (isMap && isNestedContainer())
+        {
+            throw new AccessException("Nested container '%s' can't be populated with component type values.", valueName());
+        }
+        if (isMap && !entries.isEmpty() && entries.values().stream().allMatch(componentType()::isInstance))
+        {
+            final Map<K, V> m = get(parent, Map.class);
+            if (m != null)
+            {
+                m.putAll(entries);
+            }
+        }
+    }
+    
     /**
      * Returns a new instance of the class.
      * 
@@ -62,6 +93,15 @@ public interface NodeFactory extends AutoCastValueAccessor
      */
     Object newInstance(Object... args) throws AlkemyException;
 
+    /**
+     * Returns a new instance of the class, with its fields assigned in order from the source. Unlike
+     * {@link #newInstance(Object...)} primitive arguments are not boxed.
+     * 
+     * @throws AlkemyException
+     *             If an error occurs while creating the class instance.
+     */
+    Object newInstance(ArgumentSource args) throws AlkemyException;
+
     /**
      * Returns a new instance of the component class, or null if not a component type.
      * 
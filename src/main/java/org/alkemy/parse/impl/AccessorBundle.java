@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.alkemy.exception.AlkemyException;
+
+/**
+ * Accessors of all the fields of an instrumented type, generated as a single class per type (see
+ * {@link org.alkemy.instr.AccessorBundleWriter}).
+ * <p>
+ * Each field is identified by its index, which typed accessors use to dispatch to the field's getter or setter.
+ */
+public abstract class AccessorBundle
+{
+    private final List<String> names;
+
+    protected AccessorBundle(String[] names)
+    {
+        this.names = Arrays.asList(names);
+    }
+
+    /**
+     * Returns the index of the field, or -1 if the field has no accessors in this bundle.
+     */
+    public int indexOf(String fieldName)
+    {
+        return names.indexOf(fieldName);
+    }
+
+    public abstract Object get(int index, Object parent);
+
+    public abstract void set(int index, Object parent, Object value);
+
+    public abstract double getDouble(int index, Object parent);
+
+    public abstract void setDouble(int index, Object parent, double value);
+
+    public abstract float getFloat(int index, Object parent);
+
+    public abstract void setFloat(int index, Object parent, float value);
+
+    public abstract long getLong(int index, Object parent);
+
+    public abstract void setLong(int index, Object parent, long value);
+
+    public abstract int getInt(int index, Object parent);
+
+    public abstract void setInt(int index, Object parent, int value);
+
+    public abstract short getShort(int index, Object parent);
+
+    public abstract void setShort(int index, Object parent, short value);
+
+    public abstract char getChar(int index, Object parent);
+
+    public abstract void setChar(int index, Object parent, char value);
+
+    public abstract byte getByte(int index, Object parent);
+
+    public abstract void setByte(int index, Object parent, byte value);
+
+    public abstract boolean getBoolean(int index, Object parent);
+
+    public abstract void setBoolean(int index, Object parent, boolean value);
+
+    public abstract String getString(int index, Object parent);
+
+    public abstract void setString(int index, Object parent, String value);
+
+    protected static String nameOf(Enum<?> e)
+    {
+        return e != null ? e.name() : null;
+    }
+
+    protected RuntimeException unsupported(int index)
+    {
+        return new AlkemyException("Unsupported access for field '%s'.", index < names.size() ? names.get(index) : index);
+    }
+}
@@ -21,11 +21,15 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
+import static org.alkemy.parse.impl.MethodReferenceFactory.accessorBundle;
+import static org.alkemy.parse.impl.MethodReferenceFactory.createBundledValueAccessor;
+import static org.alkemy.parse.impl.MethodReferenceFactory.createModelValueAccessor;
 import static org.alkemy.parse.impl.MethodReferenceFactory.createReferencedNodeFactory;
 import static org.alkemy.parse.impl.MethodReferenceFactory.createReferencedValueAccessor;
 import static org.alkemy.parse.impl.MethodReferenceFactory.createReflectedValueAccessor;
 import static org.alkemy.parse.impl.MethodReferenceFactory.isInstrumented;
 import static org.alkemy.parse.impl.MethodReferenceFactory.methodHandle;
+import static org.alkemy.parse.impl.MethodReferenceFactory.modelOf;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -35,6 +39,7 @@ import java.util.List;
 
 import org.alkemy.exception.AccessException;
 import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
 import org.alkemy.parse.MethodInvoker;
 import org.alkemy.parse.NodeFactory;
 import org.alkemy.parse.ValueAccessor;
@@ -61,10 +66,21 @@ class AccessorFactory
     {
         try
         {
-            if (isInstrumented(f.getDeclaringClass()))
+            final AlkemyModel model = modelOf(f.getDeclaringClass());
+            if (model != null && model.indexOf(f.getName()) >= 0)
+            {
+                return createModelValueAccessor(f, model);
+            }
+            else if (isInstrumented(f.getDeclaringClass()))
             {
                 return createReferencedValueAccessor(f);
             }
+
+            final AccessorBundle bundle = accessorBundle(f.getDeclaringClass()); // generated at runtime.
+            if (bundle != null && bundle.indexOf(f.getName()) >= 0)
+            {
+                return createBundledValueAccessor(f, bundle);
+            }
             else
             {
                 return createReflectedValueAccessor(f);
@@ -81,7 +97,12 @@ class AccessorFactory
     {
         try
         {
-            if (isInstrumented(MoreObjects.firstNonNull(valueAccessor.componentType(), valueAccessor.type())))
+            final AlkemyModel model = valueAccessor.componentType() == null ? modelOf(valueAccessor.type()) : null;
+            if (model != null)
+            {
+                return new ModelNodeFactory(model, valueAccessor);
+            }
+            else if (isInstrumented(MoreObjects.firstNonNull(valueAccessor.componentType(), valueAccessor.type())))
             {
                 return createReferencedNodeFactory(valueAccessor);
             }
@@ -101,19 +122,24 @@ class AccessorFactory
         final List<MethodInvoker> invokers = new ArrayList<MethodInvoker>();
         for (Method m : ms)
         {
-            try
-            {
-                invokers.add(new ReflectedMethodInvoker(m, m.getName(), m.getDeclaringClass(), methodHandle(m)));
-            }
-            catch (IllegalAccessException e)
-            {
-                throw new AlkemyException("Unable to create a method invoker for '%s'", e, m.getDeclaringClass() + "."
-                        + m.getName());
-            }
+            invokers.add(newInvoker(m));
         }
         return invokers;
     }
 
+    private static MethodInvoker newInvoker(Method m)
+    {
+        try
+        {
+            return new ReflectedMethodInvoker(m, m.getName(), m.getDeclaringClass(), methodHandle(m));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new AlkemyException("Unable to create a method invoker for '%s'", e, m.getDeclaringClass() + "."
+                    + m.getName());
+        }
+    }
+
     static class SelfAccessor implements ValueAccessor
     {
         Object ref;
@@ -177,6 +203,12 @@ class AccessorFactory
             throw new UnsupportedOperationException("Not supported for this type of element.");
         }
 
+        @Override
+        public Object newInstance(ArgumentSource args) throws AlkemyException
+        {
+            throw new UnsupportedOperationException("Not supported for this type of element.");
+        }
+
         @Override
         public <E> E newInstance(Class<E> type, Object... args) throws AlkemyException
         {
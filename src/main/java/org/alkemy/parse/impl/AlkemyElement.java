@@ -22,13 +22,17 @@
 package org.alkemy.parse.impl;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.alkemy.exception.AccessException;
 import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
 import org.alkemy.parse.MethodInvoker;
 import org.alkemy.parse.NodeFactory;
 import org.alkemy.parse.ValueAccessor;
@@ -42,50 +46,12 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     private final Map<String, MethodInvoker> methodInvokers;
     private final Class<? extends Annotation> alkemyType;
     private final boolean node;
-
-    // Concrete references to lambdas are much faster than through an interface.
-    private final StringReference strref;
-    private final DoubleReference dref;
-    private final FloatReference fref;
-    private final LongReference jref;
-    private final IntReference iref;
-    private final ShortReference sref;
-    private final CharReference cref;
-    private final ByteReference bref;
-    private final BooleanReference zref;
+    private volatile AtomicFieldAccessor atomicAccessor; // lazy
 
     AlkemyElement(AnnotatedMember desc, NodeFactory nodeFactory, ValueAccessor valueAccessor, List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType, boolean node)
     {
         this.desc = desc;
         this.valueAccessor = valueAccessor;
-        if (valueAccessor instanceof StringReference) strref = (StringReference) valueAccessor;
-        else
-            strref = null;
-        if (valueAccessor instanceof DoubleReference) dref = (DoubleReference) valueAccessor;
-        else
-            dref = null;
-        if (valueAccessor instanceof FloatReference) fref = (FloatReference) valueAccessor;
-        else
-            fref = null;
-        if (valueAccessor instanceof LongReference) jref = (LongReference) valueAccessor;
-        else
-            jref = null;
-        if (valueAccessor instanceof IntReference) iref = (IntReference) valueAccessor;
-        else
-            iref = null;
-        if (valueAccessor instanceof ShortReference) sref = (ShortReference) valueAccessor;
-        else
-            sref = null;
-        if (valueAccessor instanceof CharReference) cref = (CharReference) valueAccessor;
-        else
-            cref = null;
-        if (valueAccessor instanceof ByteReference) bref = (ByteReference) valueAccessor;
-        else
-            bref = null;
-        if (valueAccessor instanceof BooleanReference) zref = (BooleanReference) valueAccessor;
-        else
-            zref = null;
-
         this.nodeFactory = nodeFactory;
         this.methodInvokers = new HashMap<String, MethodInvoker>();
         methodInvokers.forEach(c -> this.methodInvokers.put(c.name(), c));
@@ -93,27 +59,65 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
         this.node = node;
     }
 
+    /**
+     * Creates the element. Leaves accessed through a typed reference, either instrumented or reflected, are specialized by kind,
+     * so the typed accessors of each kind dispatch directly to a final reference of its concrete type.
+     */
+    static AlkemyElement create(AnnotatedMember desc, NodeFactory nodeFactory, ValueAccessor valueAccessor,
+            List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType, boolean node)
+    {
+        if (node) return new AlkemyElement(desc, nodeFactory, valueAccessor, methodInvokers, alkemyType, node);
+        else if (valueAccessor instanceof StringReference) return new StringLeaf(desc, nodeFactory, (StringReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof DoubleReference) return new DoubleLeaf(desc, nodeFactory, (DoubleReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof FloatReference) return new FloatLeaf(desc, nodeFactory, (FloatReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof LongReference) return new LongLeaf(desc, nodeFactory, (LongReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof IntReference) return new IntLeaf(desc, nodeFactory, (IntReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ShortReference) return new ShortLeaf(desc, nodeFactory, (ShortReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof CharReference) return new CharLeaf(desc, nodeFactory, (CharReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ByteReference) return new ByteLeaf(desc, nodeFactory, (ByteReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof BooleanReference) return new BooleanLeaf(desc, nodeFactory, (BooleanReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedDoubleReference) return new ReflectedDoubleLeaf(desc, nodeFactory, (ReflectedDoubleReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedFloatReference) return new ReflectedFloatLeaf(desc, nodeFactory, (ReflectedFloatReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedLongReference) return new ReflectedLongLeaf(desc, nodeFactory, (ReflectedLongReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedIntReference) return new ReflectedIntLeaf(desc, nodeFactory, (ReflectedIntReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedShortReference) return new ReflectedShortLeaf(desc, nodeFactory, (ReflectedShortReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedCharReference) return new ReflectedCharLeaf(desc, nodeFactory, (ReflectedCharReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedByteReference) return new ReflectedByteLeaf(desc, nodeFactory, (ReflectedByteReference) valueAccessor, methodInvokers, alkemyType);
+        else if (valueAccessor instanceof ReflectedBooleanReference) return new ReflectedBooleanLeaf(desc, nodeFactory, (ReflectedBooleanReference) valueAccessor, methodInvokers, alkemyType);
+        else
+            return new AlkemyElement(desc, nodeFactory, valueAccessor, methodInvokers, alkemyType, node);
+    }
+
+    /**
+     * Copies the element, i.e. into a projection. The copy keeps the typed reference of the element, so its typed accessors
+     * still dispatch to the concrete reference (see {@link #getInt(Object)}).
+     */
     protected AlkemyElement(AlkemyElement other)
     {
         Assertions.nonNull(other);
 
         this.desc = other.desc;
         this.valueAccessor = other.valueAccessor;
-        this.strref = other.strref;
-        this.dref = other.dref;
-        this.fref = other.fref;
-        this.jref = other.jref;
-        this.iref = other.iref;
-        this.sref = other.sref;
-        this.cref = other.cref;
-        this.bref = other.bref;
-        this.zref = other.zref;
         this.nodeFactory = other.nodeFactory;
         this.methodInvokers = other.methodInvokers;
         this.alkemyType = other.alkemyType;
         this.node = other.node;
     }
 
+    /*
+     * Passes what the copies of the element share with it (see #AlkemyElement(AlkemyElement)).
+     */
+    void forEachShared(Consumer<Object> c)
+    {
+        for (Object o : new Object[] { desc, valueAccessor, nodeFactory, methodInvokers })
+        {
+            if (o != null)
+            {
+                c.accept(o);
+            }
+        }
+    }
+
     public AnnotatedMember desc()
     {
         return desc;
@@ -137,6 +141,13 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
         throw new AlkemyException("Alkemy elements w/o children cannot be instantiated");
     }
 
+    @Override
+    public Object newInstance(ArgumentSource args) throws AlkemyException
+    {
+        if (node) { return nodeFactory.newInstance(args); }
+        throw new AlkemyException("Alkemy elements w/o children cannot be instantiated");
+    }
+
     @Override
     public <E> E newInstance(Class<E> type, Object... args) throws AlkemyException
     {
@@ -158,7 +169,7 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public void set(String value, Object parent) throws AlkemyException
     {
-        if (strref != null) strref.set(value, parent);
+        if (valueAccessor instanceof StringReference) ((StringReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -166,9 +177,8 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public String getString(Object parent) throws AlkemyException
     {
-        if (strref != null) return strref.getString(parent);
-        else
-            return valueAccessor.getString(parent);
+        if (valueAccessor instanceof StringReference) return ((StringReference) valueAccessor).getString(parent);
+        return valueAccessor.getString(parent);
     }
 
     @Override
@@ -177,6 +187,12 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
         return nodeFactory.componentType();
     }
 
+    @Override
+    public boolean isNestedContainer()
+    {
+        return valueAccessor.isNestedContainer();
+    }
+
     @Override
     public Object newComponentInstance(Object... args) throws AlkemyException
     {
@@ -235,10 +251,70 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
         nodeFactory.addAll(parent, others);
     }
 
+    @Override
+    public final <K, V> void putAll(Object parent, Map<K, V> entries) throws AlkemyException
+    {
+        nodeFactory.putAll(parent, entries);
+    }
+
+    /**
+     * Returns the value with volatile memory semantics.
+     */
+    public Object getVolatile(Object parent) throws AlkemyException
+    {
+        return atomicAccessor().getVolatile(parent);
+    }
+
+    /**
+     * Sets the value with release memory semantics.
+     */
+    public void setRelease(Object value, Object parent) throws AlkemyException
+    {
+        atomicAccessor().setRelease(value, parent);
+    }
+
+    /**
+     * Atomically sets the value if the current value equals the expected one. Primitive values are compared by value,
+     * references by identity.
+     */
+    public boolean compareAndSet(Object expected, Object value, Object parent) throws AlkemyException
+    {
+        return atomicAccessor().compareAndSet(expected, value, parent);
+    }
+
+    /**
+     * Atomically sets the value, returning the previous one.
+     */
+    public Object getAndSet(Object value, Object parent) throws AlkemyException
+    {
+        return atomicAccessor().getAndSet(value, parent);
+    }
+
+    /**
+     * Atomically adds the delta to a numeric value, returning the previous one.
+     */
+    public Object getAndAdd(Object delta, Object parent) throws AlkemyException
+    {
+        return atomicAccessor().getAndAdd(delta, parent);
+    }
+
+    private AtomicFieldAccessor atomicAccessor() throws AlkemyException
+    {
+        AtomicFieldAccessor accessor = atomicAccessor;
+        if (accessor == null)
+        {
+            final AnnotatedElement e = desc.annotatedElement();
+            if (!(e instanceof Field)) { throw new AlkemyException("Element '%s' is not backed by a field", valueName()); }
+            atomicAccessor = accessor = AtomicFieldAccessor.create((Field) e);
+        }
+        return accessor;
+    }
+
     @Override
     public void set(double value, Object parent) throws AlkemyException
     {
-        if (dref != null) dref.set(value, parent);
+        if (valueAccessor instanceof DoubleReference) ((DoubleReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedDoubleReference) ((ReflectedDoubleReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -246,15 +322,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public double getDouble(Object parent) throws AlkemyException
     {
-        if (dref != null) return dref.getDouble(parent);
-        else
-            return valueAccessor.getDouble(parent);
+        if (valueAccessor instanceof DoubleReference) return ((DoubleReference) valueAccessor).getDouble(parent);
+        else if (valueAccessor instanceof ReflectedDoubleReference) return ((ReflectedDoubleReference) valueAccessor).getDouble(parent);
+        return valueAccessor.getDouble(parent);
     }
 
     @Override
     public void set(float value, Object parent) throws AlkemyException
     {
-        if (fref != null) fref.set(value, parent);
+        if (valueAccessor instanceof FloatReference) ((FloatReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedFloatReference) ((ReflectedFloatReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -262,15 +339,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public float getFloat(Object parent) throws AlkemyException
     {
-        if (fref != null) return fref.getFloat(parent);
-        else
-            return valueAccessor.getFloat(parent);
+        if (valueAccessor instanceof FloatReference) return ((FloatReference) valueAccessor).getFloat(parent);
+        else if (valueAccessor instanceof ReflectedFloatReference) return ((ReflectedFloatReference) valueAccessor).getFloat(parent);
+        return valueAccessor.getFloat(parent);
     }
 
     @Override
     public void set(long value, Object parent) throws AlkemyException
     {
-        if (jref != null) jref.set(value, parent);
+        if (valueAccessor instanceof LongReference) ((LongReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedLongReference) ((ReflectedLongReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -278,15 +356,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public long getLong(Object parent) throws AlkemyException
     {
-        if (jref != null) return jref.getLong(parent);
-        else
-            return valueAccessor.getLong(parent);
+        if (valueAccessor instanceof LongReference) return ((LongReference) valueAccessor).getLong(parent);
+        else if (valueAccessor instanceof ReflectedLongReference) return ((ReflectedLongReference) valueAccessor).getLong(parent);
+        return valueAccessor.getLong(parent);
     }
 
     @Override
     public void set(int value, Object parent) throws AlkemyException
     {
-        if (iref != null) iref.set(value, parent);
+        if (valueAccessor instanceof IntReference) ((IntReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedIntReference) ((ReflectedIntReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -294,15 +373,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public int getInt(Object parent) throws AlkemyException
     {
-        if (iref != null) return iref.getInt(parent);
-        else
-            return valueAccessor.getInt(parent);
+        if (valueAccessor instanceof IntReference) return ((IntReference) valueAccessor).getInt(parent);
+        else if (valueAccessor instanceof ReflectedIntReference) return ((ReflectedIntReference) valueAccessor).getInt(parent);
+        return valueAccessor.getInt(parent);
     }
 
     @Override
     public void set(short value, Object parent) throws AlkemyException
     {
-        if (sref != null) sref.set(value, parent);
+        if (valueAccessor instanceof ShortReference) ((ShortReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedShortReference) ((ReflectedShortReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -310,15 +390,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public short getShort(Object parent) throws AlkemyException
     {
-        if (sref != null) return sref.getShort(parent);
-        else
-            return valueAccessor.getShort(parent);
+        if (valueAccessor instanceof ShortReference) return ((ShortReference) valueAccessor).getShort(parent);
+        else if (valueAccessor instanceof ReflectedShortReference) return ((ReflectedShortReference) valueAccessor).getShort(parent);
+        return valueAccessor.getShort(parent);
     }
 
     @Override
     public void set(char value, Object parent) throws AlkemyException
     {
-        if (cref != null) cref.set(value, parent);
+        if (valueAccessor instanceof CharReference) ((CharReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedCharReference) ((ReflectedCharReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -326,15 +407,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public char getChar(Object parent) throws AlkemyException
     {
-        if (cref != null) return cref.getChar(parent);
-        else
-            return valueAccessor.getChar(parent);
+        if (valueAccessor instanceof CharReference) return ((CharReference) valueAccessor).getChar(parent);
+        else if (valueAccessor instanceof ReflectedCharReference) return ((ReflectedCharReference) valueAccessor).getChar(parent);
+        return valueAccessor.getChar(parent);
     }
 
     @Override
     public void set(byte value, Object parent) throws AlkemyException
     {
-        if (bref != null) bref.set(value, parent);
+        if (valueAccessor instanceof ByteReference) ((ByteReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedByteReference) ((ReflectedByteReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -342,15 +424,16 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public byte getByte(Object parent) throws AlkemyException
     {
-        if (bref != null) return bref.getByte(parent);
-        else
-            return valueAccessor.getByte(parent);
+        if (valueAccessor instanceof ByteReference) return ((ByteReference) valueAccessor).getByte(parent);
+        else if (valueAccessor instanceof ReflectedByteReference) return ((ReflectedByteReference) valueAccessor).getByte(parent);
+        return valueAccessor.getByte(parent);
     }
 
     @Override
     public void set(boolean value, Object parent) throws AlkemyException
     {
-        if (zref != null) zref.set(value, parent);
+        if (valueAccessor instanceof BooleanReference) ((BooleanReference) valueAccessor).set(value, parent);
+        else if (valueAccessor instanceof ReflectedBooleanReference) ((ReflectedBooleanReference) valueAccessor).set(value, parent);
         else
             valueAccessor.set(value, parent);
     }
@@ -358,8 +441,416 @@ public class AlkemyElement implements ValueAccessor, NodeFactory
     @Override
     public boolean getBoolean(Object parent) throws AlkemyException
     {
-        if (zref != null) return zref.getBoolean(parent);
-        else
-            return valueAccessor.getBoolean(parent);
+        if (valueAccessor instanceof BooleanReference) return ((BooleanReference) valueAccessor).getBoolean(parent);
+        else if (valueAccessor instanceof ReflectedBooleanReference) return ((ReflectedBooleanReference) valueAccessor).getBoolean(parent);
+        return valueAccessor.getBoolean(parent);
+    }
+
+    static final class StringLeaf extends AlkemyElement
+    {
+        private final StringReference ref;
+
+        StringLeaf(AnnotatedMember desc, NodeFactory nodeFactory, StringReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(String value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public String getString(Object parent) throws AlkemyException
+        {
+            return ref.getString(parent);
+        }
+    }
+
+    static final class DoubleLeaf extends AlkemyElement
+    {
+        private final DoubleReference ref;
+
+        DoubleLeaf(AnnotatedMember desc, NodeFactory nodeFactory, DoubleReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(double value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public double getDouble(Object parent) throws AlkemyException
+        {
+            return ref.getDouble(parent);
+        }
+    }
+
+    static final class FloatLeaf extends AlkemyElement
+    {
+        private final FloatReference ref;
+
+        FloatLeaf(AnnotatedMember desc, NodeFactory nodeFactory, FloatReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(float value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public float getFloat(Object parent) throws AlkemyException
+        {
+            return ref.getFloat(parent);
+        }
+    }
+
+    static final class LongLeaf extends AlkemyElement
+    {
+        private final LongReference ref;
+
+        LongLeaf(AnnotatedMember desc, NodeFactory nodeFactory, LongReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(long value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public long getLong(Object parent) throws AlkemyException
+        {
+            return ref.getLong(parent);
+        }
+    }
+
+    static final class IntLeaf extends AlkemyElement
+    {
+        private final IntReference ref;
+
+        IntLeaf(AnnotatedMember desc, NodeFactory nodeFactory, IntReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(int value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public int getInt(Object parent) throws AlkemyException
+        {
+            return ref.getInt(parent);
+        }
+    }
+
+    static final class ShortLeaf extends AlkemyElement
+    {
+        private final ShortReference ref;
+
+        ShortLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ShortReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(short value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public short getShort(Object parent) throws AlkemyException
+        {
+            return ref.getShort(parent);
+        }
+    }
+
+    static final class CharLeaf extends AlkemyElement
+    {
+        private final CharReference ref;
+
+        CharLeaf(AnnotatedMember desc, NodeFactory nodeFactory, CharReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(char value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public char getChar(Object parent) throws AlkemyException
+        {
+            return ref.getChar(parent);
+        }
+    }
+
+    static final class ByteLeaf extends AlkemyElement
+    {
+        private final ByteReference ref;
+
+        ByteLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ByteReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(byte value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public byte getByte(Object parent) throws AlkemyException
+        {
+            return ref.getByte(parent);
+        }
+    }
+
+    static final class BooleanLeaf extends AlkemyElement
+    {
+        private final BooleanReference ref;
+
+        BooleanLeaf(AnnotatedMember desc, NodeFactory nodeFactory, BooleanReference ref, List<MethodInvoker> methodInvokers,
+                Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(boolean value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public boolean getBoolean(Object parent) throws AlkemyException
+        {
+            return ref.getBoolean(parent);
+        }
+    }
+
+    static final class ReflectedDoubleLeaf extends AlkemyElement
+    {
+        private final ReflectedDoubleReference ref;
+
+        ReflectedDoubleLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedDoubleReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(double value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public double getDouble(Object parent) throws AlkemyException
+        {
+            return ref.getDouble(parent);
+        }
+    }
+
+    static final class ReflectedFloatLeaf extends AlkemyElement
+    {
+        private final ReflectedFloatReference ref;
+
+        ReflectedFloatLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedFloatReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(float value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public float getFloat(Object parent) throws AlkemyException
+        {
+            return ref.getFloat(parent);
+        }
+    }
+
+    static final class ReflectedLongLeaf extends AlkemyElement
+    {
+        private final ReflectedLongReference ref;
+
+        ReflectedLongLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedLongReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(long value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public long getLong(Object parent) throws AlkemyException
+        {
+            return ref.getLong(parent);
+        }
+    }
+
+    static final class ReflectedIntLeaf extends AlkemyElement
+    {
+        private final ReflectedIntReference ref;
+
+        ReflectedIntLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedIntReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(int value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public int getInt(Object parent) throws AlkemyException
+        {
+            return ref.getInt(parent);
+        }
+    }
+
+    static final class ReflectedShortLeaf extends AlkemyElement
+    {
+        private final ReflectedShortReference ref;
+
+        ReflectedShortLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedShortReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(short value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public short getShort(Object parent) throws AlkemyException
+        {
+            return ref.getShort(parent);
+        }
+    }
+
+    static final class ReflectedCharLeaf extends AlkemyElement
+    {
+        private final ReflectedCharReference ref;
+
+        ReflectedCharLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedCharReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(char value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public char getChar(Object parent) throws AlkemyException
+        {
+            return ref.getChar(parent);
+        }
+    }
+
+    static final class ReflectedByteLeaf extends AlkemyElement
+    {
+        private final ReflectedByteReference ref;
+
+        ReflectedByteLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedByteReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(byte value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public byte getByte(Object parent) throws AlkemyException
+        {
+            return ref.getByte(parent);
+        }
+    }
+
+    static final class ReflectedBooleanLeaf extends AlkemyElement
+    {
+        private final ReflectedBooleanReference ref;
+
+        ReflectedBooleanLeaf(AnnotatedMember desc, NodeFactory nodeFactory, ReflectedBooleanReference ref,
+                List<MethodInvoker> methodInvokers, Class<? extends Annotation> alkemyType)
+        {
+            super(desc, nodeFactory, ref, methodInvokers, alkemyType, false);
+            this.ref = ref;
+        }
+
+        @Override
+        public void set(boolean value, Object parent) throws AlkemyException
+        {
+            ref.set(value, parent);
+        }
+
+        @Override
+        public boolean getBoolean(Object parent) throws AlkemyException
+        {
+            return ref.getBoolean(parent);
+        }
     }
 }
@@ -46,15 +46,20 @@ public class AlkemyLeafLexer implements AlkemyLexer<AnnotatedMember>
     @Override
     public boolean isNode(AnnotatedMember desc)
     {
-        final DeepLeafSearch leafFinder = new DeepLeafSearch();
-        leafFinder.search(desc.type);
-        return leafFinder.get();
+        final Boolean indexed = TypeIndex.isNode(desc.annotatedElement());
+        if (indexed != null)
+        {
+            return indexed;
+        }
+
+        return DeepLeafSearch.hasLeaves(desc.type);
     }
 
     @Override
     public boolean isLeaf(AnnotatedMember desc)
     {
-        return AnnotationUtils.findAlkemyTypes(desc) != null;
+        final Boolean indexed = TypeIndex.isLeaf(desc.annotatedElement());
+        return indexed != null ? indexed : AnnotationUtils.findAlkemyTypes(desc.annotatedElement()) != null;
     }
 
     @Override
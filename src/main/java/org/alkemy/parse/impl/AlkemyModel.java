@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
+import org.objenesis.ObjenesisStd;
+
+/**
+ * A model generated at compile time for an alkemizable type (see {@link org.alkemy.apt.TypeIndexProcessor}). It accesses the
+ * fields of the type directly and creates its instances, with neither reflection nor instrumentation.
+ * <p>
+ * The model of a type {@code p.Foo} is named {@code p.Foo$$AlkemyModel}. If present, the parser uses it instead of the
+ * instrumented or reflected accessors.
+ */
+public abstract class AlkemyModel extends AccessorBundle
+{
+    public static final String SUFFIX = "$$AlkemyModel";
+
+    protected AlkemyModel(String[] names)
+    {
+        super(names);
+    }
+
+    /**
+     * Creates an instance using the default constructor (or without calling any constructor, if there is none).
+     */
+    public abstract Object newInstance();
+
+    /**
+     * Creates an instance with its fields assigned from the arguments, in the {@code @Order} (or declaration) order.
+     */
+    public abstract Object newInstance(Object... args);
+
+    /**
+     * As {@link #newInstance(Object...)}, taking the arguments from the source with no boxing.
+     */
+    public abstract Object newInstance(ArgumentSource args);
+
+    protected static <T> T instantiate(Class<T> type)
+    {
+        return new ObjenesisStd().getInstantiatorOf(type).newInstance();
+    }
+
+    protected static RuntimeException notInstantiable(Class<?> type)
+    {
+        return new AlkemyException("Type '%s' can't be instantiated.", type.getName());
+    }
+}
@@ -43,15 +43,15 @@ public class AnnotatedAlkemyElementFactory implements AlkemyElementFactory<Annot
     @Override
     public AlkemyElement createLeaf(AnnotatedMember desc, ValueAccessor valueAccessor)
     {
-        return new AlkemyElement(desc, AccessorFactory.notSupported(), valueAccessor, Collections.emptyList(), AnnotationUtils
-                .findAlkemyTypes(desc), false);
+        return AlkemyElement.create(desc, AccessorFactory.notSupported(), valueAccessor, Collections.emptyList(), AnnotationUtils
+                .findAlkemyTypes(desc.annotatedElement()), false);
     }
 
     @Override
     public AlkemyElement createNode(AnnotatedMember desc, NodeFactory valueConstructor, ValueAccessor valueAccessor,
             List<MethodInvoker> methodInvokers, Class<?> nodeType)
     {
-        return new AlkemyElement(desc, valueConstructor, valueAccessor, methodInvokers, AnnotationUtils.findAlkemyTypes(desc),
-                true);
+        return AlkemyElement.create(desc, valueConstructor, valueAccessor, methodInvokers, AnnotationUtils
+                .findAlkemyTypes(desc.annotatedElement()), true);
     }
 }
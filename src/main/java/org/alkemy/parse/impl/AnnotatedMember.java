@@ -62,6 +62,11 @@ public class AnnotatedMember implements AnnotatedElement
         return annotatedElement.getDeclaredAnnotations();
     }
 
+    AnnotatedElement annotatedElement()
+    {
+        return annotatedElement;
+    }
+
     public String getName()
     {
         return name;
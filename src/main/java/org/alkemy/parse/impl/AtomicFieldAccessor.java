@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.util.ValueConverter;
+
+/**
+ * Volatile, release and atomic access to a field, regardless of the field being instrumented, modeled or reflected.
+ * <p>
+ * On Java 9+ the access modes are those of a {@code VarHandle} of the field. On Java 8 they are built on top of
+ * {@code sun.misc.Unsafe}, which offers compare-and-set and get-and-set for int, long, float, double and reference fields, and
+ * get-and-add for int and long fields. Both are looked up reflectively and adapted to generic method handles, as this source is
+ * compiled for Java 8. Unsupported modes are null, and fail on invocation.
+ * <p>
+ * Values are converted into the field type by its {@link ValueConverter} before being applied.
+ */
+final class AtomicFieldAccessor
+{
+    private static final MethodType GET = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SET = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CAS = MethodType.methodType(boolean.class, Object.class, Object.class, Object.class);
+    private static final MethodType GET_AND = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    private static final VarHandles varHandles = VarHandles.create();
+    private static final UnsafeHandles unsafeHandles = UnsafeHandles.create();
+
+    private final Field f;
+    private final ValueConverter converter;
+    private final MethodHandle getVolatile;
+    private final MethodHandle setRelease;
+    private final MethodHandle compareAndSet;
+    private final MethodHandle getAndSet;
+    private final MethodHandle getAndAdd;
+
+    private AtomicFieldAccessor(Field f, MethodHandle getVolatile, MethodHandle setRelease, MethodHandle compareAndSet,
+            MethodHandle getAndSet, MethodHandle getAndAdd)
+    {
+        this.f = f;
+        this.converter = ValueConverter.create(f.getType());
+        this.getVolatile = adapt(getVolatile, GET);
+        this.setRelease = adapt(setRelease, SET);
+        this.compareAndSet = adapt(compareAndSet, CAS);
+        this.getAndSet = adapt(getAndSet, GET_AND);
+        this.getAndAdd = adapt(getAndAdd, GET_AND);
+    }
+
+    static AtomicFieldAccessor create(Field f) throws AlkemyException
+    {
+        if (varHandles != null) return varHandles.create(f);
+        else if (unsafeHandles != null) return unsafeHandles.create(f);
+        else
+            throw new AlkemyException("No atomic access available for field '%s'", f);
+    }
+
+    static boolean hasVarHandles() // visible for testing
+    {
+        return varHandles != null;
+    }
+
+    static boolean hasUnsafeHandles() // visible for testing
+    {
+        return unsafeHandles != null;
+    }
+
+    static AtomicFieldAccessor createVarHandleAccessor(Field f) throws AlkemyException
+    {
+        if (varHandles == null) throw new AlkemyException("VarHandles are not available");
+        return varHandles.create(f);
+    }
+
+    static AtomicFieldAccessor createUnsafeAccessor(Field f) throws AlkemyException
+    {
+        if (unsafeHandles == null) throw new AlkemyException("Unsafe is not available");
+        return unsafeHandles.create(f);
+    }
+
+    Object getVolatile(Object parent) throws AlkemyException
+    {
+        try
+        {
+            return (Object) getVolatile.invokeExact(parent);
+        }
+        catch (Throwable e)
+        {
+            throw failed("getVolatile", e);
+        }
+    }
+
+    void setRelease(Object value, Object parent) throws AlkemyException
+    {
+        final Object v = converter.convert(value);
+        try
+        {
+            setRelease.invokeExact(parent, v);
+        }
+        catch (Throwable e)
+        {
+            throw failed("setRelease", e);
+        }
+    }
+
+    boolean compareAndSet(Object expected, Object value, Object parent) throws AlkemyException
+    {
+        final Object e = converter.convert(expected);
+        final Object v = converter.convert(value);
+        try
+        {
+            return (boolean) supported(compareAndSet, "compareAndSet").invokeExact(parent, e, v);
+        }
+        catch (AlkemyException ex)
+        {
+            throw ex;
+        }
+        catch (Throwable ex)
+        {
+            throw failed("compareAndSet", ex);
+        }
+    }
+
+    Object getAndSet(Object value, Object parent) throws AlkemyException
+    {
+        final Object v = converter.convert(value);
+        try
+        {
+            return (Object) supported(getAndSet, "getAndSet").invokeExact(parent, v);
+        }
+        catch (AlkemyException e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw failed("getAndSet", e);
+        }
+    }
+
+    Object getAndAdd(Object delta, Object parent) throws AlkemyException
+    {
+        final Object d = converter.convert(delta);
+        try
+        {
+            return (Object) supported(getAndAdd, "getAndAdd").invokeExact(parent, d);
+        }
+        catch (AlkemyException e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw failed("getAndAdd", e);
+        }
+    }
+
+    private MethodHandle supported(MethodHandle mh, String mode) throws AlkemyException
+    {
+        if (mh == null) throw new AlkemyException("Access mode '%s' is not supported for field '%s'", mode, f);
+        return mh;
+    }
+
+    private AlkemyException failed(String mode, Throwable cause)
+    {
+        return new AlkemyException("Access mode '%s' failed for field '%s'", cause, mode, f);
+    }
+
+    private static MethodHandle adapt(MethodHandle mh, MethodType type)
+    {
+        return mh != null ? mh.asType(type) : null;
+    }
+
+    private static boolean isNumeric(Class<?> type)
+    {
+        return type.isPrimitive() && type != boolean.class;
+    }
+
+    /**
+     * Java 9+ VarHandle access modes, as method handles.
+     */
+    static class VarHandles
+    {
+        private final Method privateLookupIn;
+        private final Method findVarHandle;
+        private final Method findStaticVarHandle;
+        private final Method toMethodHandle;
+        private final Object getVolatile;
+        private final Object setRelease;
+        private final Object compareAndSet;
+        private final Object getAndSet;
+        private final Object getAndAdd;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private VarHandles() throws ReflectiveOperationException
+        {
+            final Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            final Class<? extends Enum> accessMode = (Class<? extends Enum>) Class.forName("java.lang.invoke.VarHandle$AccessMode");
+
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+            findVarHandle = Lookup.class.getMethod("findVarHandle", Class.class, String.class, Class.class);
+            findStaticVarHandle = Lookup.class.getMethod("findStaticVarHandle", Class.class, String.class, Class.class);
+            toMethodHandle = varHandle.getMethod("toMethodHandle", accessMode);
+            getVolatile = Enum.valueOf(accessMode, "GET_VOLATILE");
+            setRelease = Enum.valueOf(accessMode, "SET_RELEASE");
+            compareAndSet = Enum.valueOf(accessMode, "COMPARE_AND_SET");
+            getAndSet = Enum.valueOf(accessMode, "GET_AND_SET");
+            getAndAdd = Enum.valueOf(accessMode, "GET_AND_ADD");
+        }
+
+        static VarHandles create()
+        {
+            try
+            {
+                return new VarHandles();
+            }
+            catch (ReflectiveOperationException e)
+            {
+                return null; // java 8.
+            }
+        }
+
+        AtomicFieldAccessor create(Field f) throws AlkemyException
+        {
+            try
+            {
+                final Class<?> type = f.getType();
+                final Lookup lookup = (Lookup) privateLookupIn.invoke(null, f.getDeclaringClass(), MethodHandles.lookup());
+                final boolean isStatic = Modifier.isStatic(f.getModifiers());
+                final Object vh = (isStatic ? findStaticVarHandle : findVarHandle).invoke(lookup, f.getDeclaringClass(), f.getName(), type);
+
+                return new AtomicFieldAccessor(f, //
+                        mode(vh, getVolatile, isStatic), //
+                        mode(vh, setRelease, isStatic), //
+                        mode(vh, compareAndSet, isStatic), //
+                        mode(vh, getAndSet, isStatic), //
+                        isNumeric(type) ? mode(vh, getAndAdd, isStatic) : null);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new AlkemyException("Can't create the var handle of field '%s'", e, f);
+            }
+        }
+
+        private MethodHandle mode(Object vh, Object accessMode, boolean isStatic) throws ReflectiveOperationException
+        {
+            final MethodHandle mh = (MethodHandle) toMethodHandle.invoke(vh, accessMode);
+            return isStatic ? MethodHandles.dropArguments(mh, 0, Object.class) : mh;
+        }
+    }
+
+    /**
+     * Java 8 sun.misc.Unsafe access modes, as method handles bound to the field offset.
+     */
+    static class UnsafeHandles
+    {
+        private final Class<?> unsafeType;
+        private final Object unsafe;
+        private final Method objectFieldOffset;
+        private final Method staticFieldOffset;
+        private final Method staticFieldBase;
+
+        private UnsafeHandles() throws ReflectiveOperationException
+        {
+            unsafeType = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeType.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            objectFieldOffset = unsafeType.getMethod("objectFieldOffset", Field.class);
+            staticFieldOffset = unsafeType.getMethod("staticFieldOffset", Field.class);
+            staticFieldBase = unsafeType.getMethod("staticFieldBase", Field.class);
+            unsafeType.getMethod("putOrderedInt", Object.class, long.class, int.class); // removed in later JDKs
+        }
+
+        static UnsafeHandles create()
+        {
+            try
+            {
+                return new UnsafeHandles();
+            }
+            catch (ReflectiveOperationException | RuntimeException e)
+            {
+                return null; // not available.
+            }
+        }
+
+        AtomicFieldAccessor create(Field f) throws AlkemyException
+        {
+            try
+            {
+                final Class<?> type = f.getType();
+                final boolean isStatic = Modifier.isStatic(f.getModifiers());
+                final Object base = isStatic ? staticFieldBase.invoke(unsafe, f) : null;
+                final long offset = (long) (isStatic ? staticFieldOffset : objectFieldOffset).invoke(unsafe, f);
+                final Class<?> t = type.isPrimitive() ? type : Object.class;
+                final String suffix = suffix(t);
+
+                MethodHandle getVolatile = handle("get" + suffix + "Volatile", t, Object.class, long.class);
+                MethodHandle setRelease = null;
+                MethodHandle compareAndSet = null;
+                MethodHandle getAndSet = null;
+                MethodHandle getAndAdd = null;
+
+                if (t == int.class || t == long.class || t == Object.class)
+                {
+                    setRelease = handle("putOrdered" + suffix, void.class, Object.class, long.class, t);
+                    compareAndSet = handle("compareAndSwap" + suffix, boolean.class, Object.class, long.class, t, t);
+                    getAndSet = handle("getAndSet" + suffix, t, Object.class, long.class, t);
+                    getAndAdd = t != Object.class ? handle("getAndAdd" + suffix, t, Object.class, long.class, t) : null;
+                }
+                else if (t == double.class || t == float.class)
+                {
+                    // as VarHandles, compares and swaps the raw bits.
+                    final Class<?> bits = t == double.class ? long.class : int.class;
+                    final MethodHandle toBits = t == double.class ? raw("doubleToRawLongBits", Double.class, long.class, double.class)
+                            : raw("floatToRawIntBits", Float.class, int.class, float.class);
+                    final MethodHandle fromBits = t == double.class ? raw("longBitsToDouble", Double.class, double.class, long.class)
+                            : raw("intBitsToFloat", Float.class, float.class, int.class);
+                    final String bitsSuffix = suffix(bits);
+
+                    setRelease = MethodHandles.filterArguments(handle("putOrdered" + bitsSuffix, void.class, Object.class, long.class, bits), 2, toBits);
+                    compareAndSet = MethodHandles.filterArguments(handle("compareAndSwap" + bitsSuffix, boolean.class, Object.class, long.class, bits, bits), 2, toBits, toBits);
+                    getAndSet = MethodHandles.filterReturnValue(MethodHandles.filterArguments(handle("getAndSet" + bitsSuffix, bits, Object.class, long.class, bits), 2, toBits), fromBits);
+                }
+                else
+                {
+                    setRelease = handle("put" + suffix + "Volatile", void.class, Object.class, long.class, t);
+                }
+
+                return new AtomicFieldAccessor(f, //
+                        bind(getVolatile, base, offset, isStatic), //
+                        bind(setRelease, base, offset, isStatic), //
+                        bind(compareAndSet, base, offset, isStatic), //
+                        bind(getAndSet, base, offset, isStatic), //
+                        bind(getAndAdd, base, offset, isStatic));
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new AlkemyException("Can't create the unsafe accessor of field '%s'", e, f);
+            }
+        }
+
+        private MethodHandle handle(String name, Class<?> rtype, Class<?>... ptypes) throws ReflectiveOperationException
+        {
+            return MethodHandles.publicLookup().findVirtual(unsafeType, name, MethodType.methodType(rtype, ptypes)).bindTo(unsafe);
+        }
+
+        private static MethodHandle raw(String name, Class<?> owner, Class<?> rtype, Class<?> ptype) throws ReflectiveOperationException
+        {
+            return MethodHandles.publicLookup().findStatic(owner, name, MethodType.methodType(rtype, ptype));
+        }
+
+        private static MethodHandle bind(MethodHandle mh, Object base, long offset, boolean isStatic)
+        {
+            if (mh == null) return null;
+            else if (isStatic) return MethodHandles.dropArguments(MethodHandles.insertArguments(mh, 0, base, offset), 0, Object.class);
+            else
+                return MethodHandles.insertArguments(mh, 1, offset);
+        }
+
+        private static String suffix(Class<?> type)
+        {
+            final String name = type.getSimpleName();
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+}
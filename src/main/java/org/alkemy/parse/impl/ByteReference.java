@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.functional.ObjByteConsumer;
-import org.alkemy.functional.ToByteFunction;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class ByteReference extends LambdaReference implements ValueAccessor
 {
-    private final ToByteFunction<Object> bgetter;
-    private final ObjByteConsumer<Object> bsetter;
-
-    @SuppressWarnings("unchecked")
     public ByteReference(Field f) throws NoSuchMethodException, SecurityException, IllegalAccessException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            bsetter = (i, v) -> super.set(v, i);
-            bgetter = (i) -> super.getByte(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, byte.class);
-            final Method accept = ObjByteConsumer.class.getMethod("accept", Object.class, byte.class);
-            bsetter = MethodReferenceFactory.methodReference(ObjByteConsumer.class, accept, setterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method apply = ToByteFunction.class.getMethod("apply", Object.class);
-            bgetter = MethodReferenceFactory.methodReference(ToByteFunction.class, apply, getterHandle);
-        }
+    ByteReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public byte getByte(Object parent)
     {
-        return bgetter.apply(parent);
+        return bundle.getByte(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setByte(index, parent, converter.toByte(value));
     }
 
     @Override
     public void set(byte value, Object parent) throws AlkemyException
     {
-        bsetter.accept(parent, value);
+        bundle.setByte(index, parent, value);
     }
-}
\ No newline at end of file
+}
@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.functional.ObjCharConsumer;
-import org.alkemy.functional.ToCharFunction;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class CharReference extends LambdaReference implements ValueAccessor
 {
-    private final ToCharFunction<Object> cgetter;
-    private final ObjCharConsumer<Object> csetter;
-
-    @SuppressWarnings("unchecked")
     public CharReference(Field f) throws NoSuchMethodException, SecurityException, IllegalAccessException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            csetter = (i, v) -> super.set(v, i);
-            cgetter = (i) -> super.getChar(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, char.class);
-            final Method accept = ObjCharConsumer.class.getMethod("accept", Object.class, char.class);
-            csetter = MethodReferenceFactory.methodReference(ObjCharConsumer.class, accept, setterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method apply = ToCharFunction.class.getMethod("apply", Object.class);
-            cgetter = MethodReferenceFactory.methodReference(ToCharFunction.class, apply, getterHandle);
-        }
+    CharReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public char getChar(Object parent)
     {
-        return cgetter.apply(parent);
+        return bundle.getChar(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setChar(index, parent, converter.toChar(value));
     }
 
     @Override
     public void set(char value, Object parent) throws AlkemyException
     {
-        csetter.accept(parent, value);
+        bundle.setChar(index, parent, value);
     }
 }
@@ -22,37 +22,109 @@
 package org.alkemy.parse.impl;
 
 import java.lang.reflect.Field;
-import java.util.function.Supplier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.alkemy.util.AnnotationUtils;
-import org.alkemy.util.Node;
+import org.alkemy.util.Types;
 
-public class DeepLeafSearch implements Supplier<Boolean>
+/**
+ * Searches whether a type has leaves, i.e. declares an alkemy element field, or has it any type reachable through its fields or
+ * superclasses.
+ * <p>
+ * The search is a breadth first walk of the field types (and their component types), so self referencing types are safe.
+ * Results are memoized per class and shared by all parses: a negative result is recorded for all the types walked, since none
+ * of them can reach a leaf either.
+ * Types of the bootstrap class loader (primitives, jdk types) are never walked.
+ */
+public class DeepLeafSearch
 {
-    private boolean leafFound;
+    private static final ClassValue<Result> results = new ClassValue<Result>()
+    {
+        @Override
+        protected Result computeValue(Class<?> type)
+        {
+            return new Result();
+        }
+    };
+
+    private DeepLeafSearch()
+    {
+    }
 
-    public Node<AlkemyElement> search(Class<?> type)
+    public static boolean hasLeaves(Class<?> type)
     {
+        final Boolean known = results.get(type).hasLeaves;
+        return known != null ? known : search(type);
+    }
+
+    private static boolean search(Class<?> type)
+    {
+        final Set<Class<?>> visited = new HashSet<>();
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+        visited.add(type);
+
+        while (!pending.isEmpty())
+        {
+            final Class<?> current = pending.poll();
+            if (current.getClassLoader() == null)
+            {
+                continue;
+            }
+
+            final Boolean known = results.get(current).hasLeaves;
+            if (Boolean.TRUE.equals(known) || (known == null && hasLeafFields(current, pending, visited)))
+            {
+                results.get(type).hasLeaves = true;
+                return true;
+            }
+        }
+
+        // no visited type reaches a leaf.
+        for (Class<?> c : visited)
+        {
+            results.get(c).hasLeaves = false;
+        }
+        return false;
+    }
+
+    private static boolean hasLeafFields(Class<?> type, Deque<Class<?>> pending, Set<Class<?>> visited)
+    {
+        final List<Class<?>> fieldTypes = new ArrayList<>();
         for (final Field f : type.getDeclaredFields())
         {
             if (AnnotationUtils.findAlkemyTypes(f) != null)
             {
-                leafFound = true;
-                break;
+                return true;
+            }
+            fieldTypes.add(f.getType());
+            final Class<?> componentType = Types.getComponentType(f);
+            if (componentType != null)
+            {
+                fieldTypes.add(componentType); // collection, map or array items
             }
-            else
+        }
+        if (type.getSuperclass() != null)
+        {
+            fieldTypes.add(type.getSuperclass()); // inherited leaves
+        }
+        for (Class<?> fieldType : fieldTypes)
+        {
+            if (visited.add(fieldType))
             {
-                final DeepLeafSearch leafFinder = new DeepLeafSearch();
-                leafFinder.search(f.getType());
-                leafFound = leafFinder.get();
+                pending.add(fieldType);
             }
         }
-        return null;
+        return false;
     }
 
-    @Override
-    public Boolean get()
+    private static class Result
     {
-        return leafFound;
+        private volatile Boolean hasLeaves;
     }
 }
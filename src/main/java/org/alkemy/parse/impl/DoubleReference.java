@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.function.ObjDoubleConsumer;
-import java.util.function.ToDoubleFunction;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class DoubleReference extends LambdaReference implements ValueAccessor
 {
-    private final ToDoubleFunction<Object> dgetter;
-    private final ObjDoubleConsumer<Object> dsetter;
-
-    @SuppressWarnings("unchecked")
     public DoubleReference(Field f) throws IllegalAccessException, SecurityException, NoSuchMethodException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            dsetter = (i, v) -> super.set(v, i);
-            dgetter = (i) -> super.getDouble(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, double.class);
-            final Method accept = ObjDoubleConsumer.class.getMethod("accept", Object.class, double.class);
-            dsetter = MethodReferenceFactory.methodReference(ObjDoubleConsumer.class, accept, setterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method apply = ToDoubleFunction.class.getMethod("applyAsDouble", Object.class);
-            dgetter = MethodReferenceFactory.methodReference(ToDoubleFunction.class, apply, getterHandle);
-        }
+    DoubleReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public double getDouble(Object parent)
     {
-        return dgetter.applyAsDouble(parent);
+        return bundle.getDouble(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setDouble(index, parent, converter.toDouble(value));
     }
 
     @Override
     public void set(double value, Object parent) throws AlkemyException
     {
-        dsetter.accept(parent, value);
+        bundle.setDouble(index, parent, value);
     }
 }
@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.functional.ObjFloatConsumer;
-import org.alkemy.functional.ToFloatFunction;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class FloatReference extends LambdaReference implements ValueAccessor
 {
-    private final ToFloatFunction<Object> fgetter;
-    private final ObjFloatConsumer<Object> fsetter;
-
-    @SuppressWarnings("unchecked")
     public FloatReference(Field f) throws IllegalAccessException, SecurityException, NoSuchMethodException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            fsetter = (i, v) -> super.set(v, i);
-            fgetter = (i) -> super.getFloat(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, float.class);
-            final Method accept = ObjFloatConsumer.class.getMethod("accept", Object.class, float.class);
-            fsetter = MethodReferenceFactory.methodReference(ObjFloatConsumer.class, accept, setterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method apply = ToFloatFunction.class.getMethod("apply", Object.class);
-            fgetter = MethodReferenceFactory.methodReference(ToFloatFunction.class, apply, getterHandle);
-        }
+    FloatReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public float getFloat(Object parent)
     {
-        return fgetter.apply(parent);
+        return bundle.getFloat(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setFloat(index, parent, converter.toFloat(value));
     }
 
     @Override
     public void set(float value, Object parent) throws AlkemyException
     {
-        fsetter.accept(parent, value);
+        bundle.setFloat(index, parent, value);
     }
 }
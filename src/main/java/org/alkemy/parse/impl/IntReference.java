@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.function.ObjIntConsumer;
-import java.util.function.ToIntFunction;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class IntReference extends LambdaReference implements ValueAccessor
 {
-    private final ToIntFunction<Object> igetter;
-    private final ObjIntConsumer<Object> isetter;
-
-    @SuppressWarnings("unchecked")
     public IntReference(Field f) throws NoSuchMethodException, SecurityException, IllegalAccessException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            isetter = (i, v) -> super.set(v, i);
-            igetter = (i) -> super.getInt(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle isetterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, int.class);
-            final Method iaccept = ObjIntConsumer.class.getMethod("accept", Object.class, int.class);
-            isetter = MethodReferenceFactory.methodReference(ObjIntConsumer.class, iaccept, isetterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle igetterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method iapply = ToIntFunction.class.getMethod("applyAsInt", Object.class);
-            igetter = MethodReferenceFactory.methodReference(ToIntFunction.class, iapply, igetterHandle);
-        }
+    IntReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public int getInt(Object parent)
     {
-        return igetter.applyAsInt(parent);
+        return bundle.getInt(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setInt(index, parent, converter.toInt(value));
     }
 
     @Override
     public void set(int value, Object parent) throws AlkemyException
     {
-        isetter.accept(parent, value);
+        bundle.setInt(index, parent, value);
     }
 }
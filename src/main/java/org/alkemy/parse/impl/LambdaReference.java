@@ -21,64 +21,48 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
-import java.util.function.Function;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.instr.AlkemizerUtils;
-
-import com.google.common.base.Supplier;
+import org.alkemy.util.ValueConverter;
 
+/**
+ * Accessor of an instrumented (or modeled, see {@link AlkemyModel}) field. All the fields of the type share the type's
+ * {@link AccessorBundle}, the field is accessed by its index in the bundle.
+ */
 public class LambdaReference extends Reference
 {
-    // All types.
-    private final Function<Object, ?> getter;
-    private final BiConsumer<Object, Object> setter;
+    protected final AccessorBundle bundle;
+    protected final int index;
+    protected final ValueConverter converter;
 
-    @SuppressWarnings("unchecked")
     LambdaReference(Field f) throws NoSuchMethodException, SecurityException, IllegalAccessException
     {
-        super(f);
-        
-        final Class<?> clazz = f.getDeclaringClass();
-        final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(clazz, AlkemizerUtils.getGetterName(f.getName()));
-        final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(clazz, AlkemizerUtils.getSetterName(f.getName()), f.getType());
+        this(f, MethodReferenceFactory.accessorBundle(f.getDeclaringClass()));
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            final Method get = Supplier.class.getMethod("get");
-            final Method accept = Consumer.class.getMethod("accept", Object.class);
+    LambdaReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f);
 
-            final Supplier<Object> getter = MethodReferenceFactory.methodReference(Supplier.class, get, getterHandle);
-            final Consumer<Object> setter = MethodReferenceFactory.methodReference(Consumer.class, accept, setterHandle);
-            
-            this.getter = (i) -> getter.get();
-            this.setter = (i, v) -> setter.accept(v);
-        }
-        else
+        this.bundle = bundle;
+        this.index = bundle.indexOf(f.getName());
+        this.converter = ValueConverter.create(f.getType());
+        if (index < 0)
         {
-            final Method apply = Function.class.getMethod("apply", Object.class);
-            final Method accept = BiConsumer.class.getMethod("accept", Object.class, Object.class);
-
-            getter = MethodReferenceFactory.methodReference(Function.class, apply, getterHandle);
-            setter = MethodReferenceFactory.methodReference(BiConsumer.class, accept, setterHandle);
+            throw new NoSuchMethodException(String.format("No accessors for field '%s'.", valueName()));
         }
     }
 
     @Override
     public Object get(Object parent) throws AlkemyException
     {
-        return getter.apply(parent);
+        return bundle.get(index, parent);
     }
 
     @Override
     public void set(Object value, Object parent) throws AlkemyException
     {
-        setter.accept(parent, value);
+        bundle.set(index, parent, converter.convert(value));
     }
 }
@@ -21,54 +21,37 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
-import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.function.ObjLongConsumer;
-import java.util.function.ToLongFunction;
 
 import org.alkemy.exception.AlkemyException;
-import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.parse.ValueAccessor;
 
 public class LongReference extends LambdaReference implements ValueAccessor
 {
-    private final ToLongFunction<Object> jgetter;
-    private final ObjLongConsumer<Object> jsetter;
-
-    @SuppressWarnings("unchecked")
     public LongReference(Field f) throws NoSuchMethodException, SecurityException, IllegalAccessException
     {
         super(f);
+    }
 
-        if (Modifier.isStatic(f.getModifiers()))
-        {
-            jsetter = (i, v) -> super.set(v, i);
-            jgetter = (i) -> super.getLong(i);
-        }
-        else
-        {
-            final String setterName = AlkemizerUtils.getSetterName(f.getName());
-            final MethodHandle setterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), setterName, long.class);
-            final Method accept = ObjLongConsumer.class.getMethod("accept", Object.class, long.class);
-            jsetter = MethodReferenceFactory.methodReference(ObjLongConsumer.class, accept, setterHandle);
-
-            final String getterName = AlkemizerUtils.getGetterName(f.getName());
-            final MethodHandle getterHandle = MethodReferenceFactory.methodHandle(f.getDeclaringClass(), getterName);
-            final Method apply = ToLongFunction.class.getMethod("applyAsLong", Object.class);
-            jgetter = MethodReferenceFactory.methodReference(ToLongFunction.class, apply, getterHandle);
-        }
+    LongReference(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        super(f, bundle);
     }
 
     public long getLong(Object parent)
     {
-        return jgetter.applyAsLong(parent);
+        return bundle.getLong(index, parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        bundle.setLong(index, parent, converter.toLong(value));
     }
 
     @Override
     public void set(long value, Object parent) throws AlkemyException
     {
-        jsetter.accept(parent, value);
+        bundle.setLong(index, parent, value);
     }
 }
@@ -27,12 +27,24 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.instr.AccessorBundleWriter;
+import org.alkemy.instr.AlkemizerUtils;
 import org.alkemy.instr.ConstructorWriter;
 import org.alkemy.instr.DefaultAlkemizerWriter;
+import org.alkemy.parse.ArgumentSource;
 import org.alkemy.parse.AutoCastValueAccessor;
 import org.alkemy.parse.ConstructorFunction;
 import org.alkemy.parse.InterfaceDefaultInstance;
@@ -50,14 +62,212 @@ public class MethodReferenceFactory
 {
     private static final Logger log = LoggerFactory.getLogger(MethodReferenceFactory.class);
 
+    private static final String ACCESSOR_BUNDLE_SUFFIX = "$$AlkemyAccessors";
+
+    // probed once per class.
+    private static final ClassValue<Boolean> INSTRUMENTED = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return (boolean) methodHandle(type, DefaultAlkemizerWriter.IS_INSTRUMENTED).invokeExact();
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+            catch (Throwable e)
+            {
+                log.debug(String.format("Can't probe the instrumentation of type '%s'.", type.getName()), e);
+                return false;
+            }
+        }
+    };
+
+    // the accessors of all the fields of a type, spun in a single class. Null if a non instrumented type has no accessible fields.
+    private static final ClassValue<AccessorBundle> ACCESSOR_BUNDLES = new ClassValue<AccessorBundle>()
+    {
+        @Override
+        protected AccessorBundle computeValue(Class<?> type)
+        {
+            return INSTRUMENTED.get(type) ? createAccessorBundle(type) : createFieldAccessBundle(type);
+        }
+    };
+
+    // the models generated at compile time, loaded once per class.
+    private static final ClassValue<Optional<AlkemyModel>> MODELS = new ClassValue<Optional<AlkemyModel>>()
+    {
+        @Override
+        protected Optional<AlkemyModel> computeValue(Class<?> type)
+        {
+            return loadModel(type);
+        }
+    };
+
     static boolean isInstrumented(Class<?> clazz) throws IllegalAccessException, SecurityException
     {
+        return INSTRUMENTED.get(clazz);
+    }
+
+    /**
+     * Returns the accessors of the type. For non instrumented types the accessors access directly the non private, non final
+     * fields, and null is returned if there are none or the accessors can't be defined in the package of the type.
+     */
+    static AccessorBundle accessorBundle(Class<?> clazz)
+    {
+        return ACCESSOR_BUNDLES.get(clazz);
+    }
+
+    /**
+     * Returns the model generated at compile time for the type, or null if there is none.
+     */
+    static AlkemyModel modelOf(Class<?> clazz)
+    {
+        return MODELS.get(clazz).orElse(null);
+    }
+
+    private static Optional<AlkemyModel> loadModel(Class<?> type)
+    {
+        if (type.getClassLoader() == null || type.isArray() || type.isPrimitive())
+        {
+            return Optional.empty();
+        }
         try
         {
-            final Method get = Supplier.class.getMethod("get");
-            final MethodHandle referent = methodHandle(clazz, DefaultAlkemizerWriter.IS_INSTRUMENTED);
-            final Supplier<Boolean> instrumented = methodReference(Supplier.class, get, referent);
-            return instrumented != null && instrumented.get();
+            final Class<?> model = Class.forName(type.getName() + AlkemyModel.SUFFIX, true, type.getClassLoader());
+            return Optional.of((AlkemyModel) model.getConstructor().newInstance());
+        }
+        catch (ClassNotFoundException e)
+        {
+            return Optional.empty();
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            log.debug(String.format("Can't load the model of type '%s'.", type.getName()), e);
+            return Optional.empty();
+        }
+    }
+
+    private static AccessorBundle createAccessorBundle(Class<?> type)
+    {
+        final List<Field> fields = new ArrayList<>();
+        for (Field f : type.getDeclaredFields())
+        {
+            if (!f.isSynthetic() && hasAccessors(f))
+            {
+                fields.add(f);
+            }
+        }
+
+        try
+        {
+            return defineAccessorBundle(type, fields, AccessorBundleWriter.write(bundleName(type), fields));
+        }
+        catch (ReflectiveOperationException | SecurityException e)
+        {
+            throw new AlkemyException("Unable to create the accessors of type '%s'", e, type.getName());
+        }
+    }
+
+    private static AccessorBundle createFieldAccessBundle(Class<?> type)
+    {
+        if (type.getClassLoader() == null || type.isArray() || type.isPrimitive() || type.isInterface())
+        {
+            return null;
+        }
+
+        final List<Field> fields = new ArrayList<>();
+        for (Field f : type.getDeclaredFields())
+        {
+            if (!f.isSynthetic() && isDirectlyAccessible(f))
+            {
+                fields.add(f);
+            }
+        }
+        if (fields.isEmpty())
+        {
+            return null;
+        }
+
+        try
+        {
+            return defineAccessorBundle(type, fields, AccessorBundleWriter.writeFieldAccess(bundleName(type), fields));
+        }
+        catch (ReflectiveOperationException | SecurityException | LinkageError e)
+        {
+            log.debug(String.format("Can't create the accessors of type '%s'. Apply reflection.", type.getName()), e);
+            return null;
+        }
+    }
+
+    private static String bundleName(Class<?> type)
+    {
+        return (type.getName() + ACCESSOR_BUNDLE_SUFFIX).replace('.', '/');
+    }
+
+    private static AccessorBundle defineAccessorBundle(Class<?> type, List<Field> fields, byte[] bytes)
+            throws ReflectiveOperationException
+    {
+        final String name = type.getName() + ACCESSOR_BUNDLE_SUFFIX;
+        final String[] names = fields.stream().map(Field::getName).toArray(String[]::new);
+        Class<?> bundle;
+        try
+        {
+            bundle = defineClass(type, name, bytes);
+        }
+        catch (InvocationTargetException e)
+        {
+            if (!(e.getCause() instanceof LinkageError))
+            {
+                throw e;
+            }
+            bundle = Class.forName(name, true, type.getClassLoader()); // defined concurrently.
+        }
+        return (AccessorBundle) bundle.getConstructor(String[].class).newInstance((Object) names);
+    }
+
+    /*
+     * Non private && non final fields, whose type is accessible from the package of the declaring type.
+     */
+    private static boolean isDirectlyAccessible(Field f)
+    {
+        final int modifiers = f.getModifiers();
+        return !Modifier.isPrivate(modifiers) && !Modifier.isFinal(modifiers) && isAccessible(f.getType(), f.getDeclaringClass());
+    }
+
+    private static boolean isAccessible(Class<?> type, Class<?> from)
+    {
+        while (type.isArray())
+        {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive())
+        {
+            return true;
+        }
+        if (type.getClassLoader() == from.getClassLoader() && Objects.equals(type.getPackage(), from.getPackage()))
+        {
+            return true;
+        }
+        for (Class<?> c = type; c != null; c = c.getDeclaringClass())
+        {
+            if (!Modifier.isPublic(c.getModifiers()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasAccessors(Field f)
+    {
+        try
+        {
+            final Class<?> clazz = f.getDeclaringClass();
+            return clazz.getDeclaredMethod(AlkemizerUtils.getGetterName(f.getName())).getReturnType() == f.getType() //
+                    && clazz.getDeclaredMethod(AlkemizerUtils.getSetterName(f.getName()), f.getType()) != null;
         }
         catch (NoSuchMethodException e)
         {
@@ -65,25 +275,80 @@ public class MethodReferenceFactory
         }
     }
 
+    /*
+     * Defines the class in the package of the host, using its class loader.
+     */
+    static Class<?> defineClass(Class<?> host, String name, byte[] bytes) throws ReflectiveOperationException
+    {
+        try
+        {
+            // jdk9+
+            final Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            final Object lookup = privateLookupIn.invoke(null, host, MethodHandles.lookup());
+            return (Class<?>) MethodHandles.Lookup.class.getMethod("defineClass", byte[].class).invoke(lookup, bytes);
+        }
+        catch (NoSuchMethodException e)
+        {
+            final Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class,
+                    int.class, ProtectionDomain.class);
+            defineClass.setAccessible(true);
+            return (Class<?>) defineClass.invoke(host.getClassLoader(), name, bytes, 0, bytes.length, host.getProtectionDomain());
+        }
+    }
+
     static ValueAccessor createReflectedValueAccessor(Field f) throws IllegalAccessException, SecurityException, NoSuchMethodException
     {
+        if (f.getType().isPrimitive())
+        {
+            try
+            {
+                return createReflectedPrimitiveReference(f);
+            }
+            catch (IllegalAccessException | RuntimeException e)
+            {
+                log.trace("No exact accessors for field '{}'. Apply direct reflection.", f.toGenericString());
+            }
+        }
         return new ReflectedReference(f);
     }
 
+    private static ValueAccessor createReflectedPrimitiveReference(Field f) throws IllegalAccessException
+    {
+        if (f.getType() == double.class) return new ReflectedDoubleReference(f);
+        else if (f.getType() == float.class) return new ReflectedFloatReference(f);
+        else if (f.getType() == long.class) return new ReflectedLongReference(f);
+        else if (f.getType() == int.class) return new ReflectedIntReference(f);
+        else if (f.getType() == short.class) return new ReflectedShortReference(f);
+        else if (f.getType() == char.class) return new ReflectedCharReference(f);
+        else if (f.getType() == byte.class) return new ReflectedByteReference(f);
+        else
+            return new ReflectedBooleanReference(f);
+    }
+
     static ValueAccessor createReferencedValueAccessor(Field f) throws IllegalAccessException, SecurityException, NoSuchMethodException
     {
-        if (f.getType() == double.class) return new DoubleReference(f);
-        else if (f.getType() == float.class) return new FloatReference(f);
-        else if (f.getType() == long.class) return new LongReference(f);
-        else if (f.getType() == int.class) return new IntReference(f);
-        else if (f.getType() == short.class) return new ShortReference(f);
-        else if (f.getType() == char.class) return new CharReference(f);
-        else if (f.getType() == byte.class) return new ByteReference(f);
-        else if (f.getType() == boolean.class) return new BooleanReference(f);
-        else if (f.getType().isEnum()) return new StringReference(f);
-        else if (f.getType() == String.class) return new StringReference(f);
+        return createBundledValueAccessor(f, accessorBundle(f.getDeclaringClass()));
+    }
+
+    static ValueAccessor createModelValueAccessor(Field f, AlkemyModel model) throws NoSuchMethodException
+    {
+        return createBundledValueAccessor(f, model);
+    }
+
+    static ValueAccessor createBundledValueAccessor(Field f, AccessorBundle bundle) throws NoSuchMethodException
+    {
+        if (f.getType() == double.class) return new DoubleReference(f, bundle);
+        else if (f.getType() == float.class) return new FloatReference(f, bundle);
+        else if (f.getType() == long.class) return new LongReference(f, bundle);
+        else if (f.getType() == int.class) return new IntReference(f, bundle);
+        else if (f.getType() == short.class) return new ShortReference(f, bundle);
+        else if (f.getType() == char.class) return new CharReference(f, bundle);
+        else if (f.getType() == byte.class) return new ByteReference(f, bundle);
+        else if (f.getType() == boolean.class) return new BooleanReference(f, bundle);
+        else if (f.getType().isEnum()) return new StringReference(f, bundle);
+        else if (f.getType() == String.class) return new StringReference(f, bundle);
         else
-            return new LambdaReference(f);
+            return new LambdaReference(f, bundle);
     }
 
     static NodeFactory createReferencedNodeFactory(AutoCastValueAccessor valueAccessor) throws IllegalAccessException, SecurityException
@@ -116,6 +381,7 @@ public class MethodReferenceFactory
             final Supplier<Object> typeCtor = getTypeCtor(valueAccessor.type());
             final Method factoryReference = ConstructorFunction.class.getMethod("newInstance", Object[].class);
             final ConstructorFunction factoryWithArgs = MethodReferenceFactory.methodReference(ConstructorFunction.class, factoryReference, factory);
+            final Function<ArgumentSource, Object> factoryWithSource = getSourceFactory(instrumentedType);
 
             final Supplier<Object> componentTypeCtor;
             if (valueAccessor.componentType() != null)
@@ -129,6 +395,7 @@ public class MethodReferenceFactory
             return new ReferencedNodeFactory(typeCtor//
                     , componentTypeCtor//
                     , factoryWithArgs//
+                    , factoryWithSource//
                     , valueAccessor);
         }
         catch (NoSuchMethodException e)
@@ -138,6 +405,23 @@ public class MethodReferenceFactory
         return null;
     }
 
+    /*
+     * Null if the type was instrumented without the create$$source factory.
+     */
+    private static Function<ArgumentSource, Object> getSourceFactory(Class<?> instrumentedType) throws NoSuchMethodException
+    {
+        try
+        {
+            final MethodHandle handle = methodHandle(instrumentedType, ConstructorWriter.CREATE_SOURCE, ArgumentSource.class);
+            return methodReference(Function.class, Function.class.getMethod("apply", Object.class), handle);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            log.debug("Source factory method not present in type '{}'.", instrumentedType.getName());
+            return null;
+        }
+    }
+
     static Supplier<Object> getTypeCtor(Class<?> type) throws IllegalAccessException, SecurityException, NoSuchMethodException
     {
         final Method get = Supplier.class.getMethod("get");
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.util.Arrays;
+
+import org.alkemy.exception.AccessException;
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
+import org.alkemy.parse.AutoCastValueAccessor;
+import org.alkemy.parse.NodeFactory;
+
+/**
+ * Creates the node instances through the generated {@link AlkemyModel} of the node type.
+ */
+public class ModelNodeFactory implements NodeFactory
+{
+    private final AlkemyModel model;
+    private final AutoCastValueAccessor valueAccessor;
+
+    ModelNodeFactory(AlkemyModel model, AutoCastValueAccessor valueAccessor)
+    {
+        this.model = model;
+        this.valueAccessor = valueAccessor;
+    }
+
+    @Override
+    public Class<?> type() throws AlkemyException
+    {
+        return valueAccessor.type();
+    }
+
+    @Override
+    public Object newInstance(Object... args) throws AlkemyException
+    {
+        try
+        {
+            return args.length == 0 ? model.newInstance() : model.newInstance(args);
+        }
+        catch (RuntimeException e)
+        {
+            throw new AccessException("Provided arguments '%s' do not match the ctor expected arguments of type '%s'.", e, Arrays
+                    .asList(args), type());
+        }
+    }
+
+    @Override
+    public Object newInstance(ArgumentSource args) throws AlkemyException
+    {
+        try
+        {
+            return model.newInstance(args);
+        }
+        catch (RuntimeException e)
+        {
+            throw new AccessException("Provided arguments do not match the ctor expected arguments of type '%s'.", e, type());
+        }
+    }
+
+    @Override
+    public Class<?> componentType() throws AlkemyException
+    {
+        return null;
+    }
+
+    @Override
+    public Object newComponentInstance(Object... args) throws AlkemyException
+    {
+        return null;
+    }
+
+    @Override
+    public Object get(Object parent) throws AlkemyException
+    {
+        return valueAccessor.get(parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        valueAccessor.set(value, parent);
+    }
+
+    @Override
+    public String valueName()
+    {
+        return valueAccessor.valueName();
+    }
+
+    @Override
+    public boolean isCollection()
+    {
+        return valueAccessor.isCollection();
+    }
+}
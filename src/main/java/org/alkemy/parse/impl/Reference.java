@@ -34,6 +34,7 @@ public class Reference implements ValueAccessor
     private final String name;
     private final boolean collection;
     private final Class<?> componentType;
+    private final boolean nestedContainer;
 
     // not a field
     Reference()
@@ -42,6 +43,7 @@ public class Reference implements ValueAccessor
         this.name = null;
         this.collection = false;
         this.componentType = null;
+        this.nestedContainer = false;
     }
 
     Reference(Field f)
@@ -50,6 +52,7 @@ public class Reference implements ValueAccessor
         this.type = f.getType();
         this.componentType = Types.getComponentType(f);
         this.collection = Collection.class.isAssignableFrom(type);
+        this.nestedContainer = Types.isNestedContainer(f);
     }
 
     @Override
@@ -70,6 +73,12 @@ public class Reference implements ValueAccessor
         return componentType;
     }
 
+    @Override
+    public boolean isNestedContainer()
+    {
+        return nestedContainer;
+    }
+
     @Override
     public String valueName()
     {
@@ -22,12 +22,15 @@
 package org.alkemy.parse.impl;
 
 import java.util.Arrays;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.alkemy.exception.AccessException;
 import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
 import org.alkemy.parse.AutoCastValueAccessor;
 import org.alkemy.parse.ConstructorFunction;
+import org.alkemy.parse.InterfaceDefaultInstance;
 import org.alkemy.parse.NodeFactory;
 import org.alkemy.util.Assertions;
 
@@ -36,16 +39,19 @@ public class ReferencedNodeFactory implements NodeFactory
     private final Supplier<?> noargsCtor;
     private final Supplier<?> noargsComponentCtor;
     private final ConstructorFunction staticFactory;
+    private final Function<ArgumentSource, Object> sourceFactory;
     private AutoCastValueAccessor valueAccessor;
 
     ReferencedNodeFactory(Supplier<?> noargsCtor, Supplier<?> noargsComponentCtor, ConstructorFunction staticFactory,
-            AutoCastValueAccessor valueAccessor)
+            Function<ArgumentSource, Object> sourceFactory, AutoCastValueAccessor valueAccessor)
     {
         Assertions.noneNull(noargsCtor, staticFactory);
 
         this.noargsCtor = noargsCtor;
         this.noargsComponentCtor = noargsComponentCtor;
         this.staticFactory = staticFactory;
+        this.sourceFactory = sourceFactory != null ? sourceFactory // instrumented w/o create$$source
+                : new ReflectedSourceFactory(InterfaceDefaultInstance.get(valueAccessor.type()), noargsCtor);
         this.valueAccessor = valueAccessor;
     }
 
@@ -77,6 +83,33 @@ public class ReferencedNodeFactory implements NodeFactory
         }
     }
 
+    @Override
+    public Object newInstance(ArgumentSource args) throws AlkemyException
+    {
+        if (valueAccessor.isCollection())
+        {
+            throw new AccessException("Collection '%s' can't be created from an argument source.", valueName());
+        }
+        try
+        {
+            return sourceFactory.apply(args);
+        }
+        catch (AlkemyException e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            throw new AccessException("Provided arguments do not match the ctor expected arguments of type '%s'.", e, type());
+        }
+    }
+
+    @Override
+    public boolean isNestedContainer()
+    {
+        return valueAccessor.isNestedContainer();
+    }
+
     @Override
     public Class<?> componentType() throws AlkemyException
     {
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.lang.reflect.Field;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ValueAccessor;
+
+public class ReflectedDoubleReference extends ReflectedPrimitiveReference implements ValueAccessor
+{
+    ReflectedDoubleReference(Field f) throws IllegalAccessException
+    {
+        super(f);
+    }
+
+    @Override
+    public Object get(Object parent) throws AlkemyException
+    {
+        return getDouble(parent);
+    }
+
+    @Override
+    public void set(Object value, Object parent) throws AlkemyException
+    {
+        set(converter.toDouble(value), parent);
+    }
+
+    @Override
+    public double getDouble(Object parent) throws AlkemyException
+    {
+        try
+        {
+            return (double) getter.invokeExact(parent);
+        }
+        catch (Throwable e)
+        {
+            throw getFailed(parent, e);
+        }
+    }
+
+    @Override
+    public void set(double value, Object parent) throws AlkemyException
+    {
+        try
+        {
+            setter.invokeExact(parent, value);
+        }
+        catch (Throwable e)
+        {
+            throw setFailed(value, e);
+        }
+    }
+}
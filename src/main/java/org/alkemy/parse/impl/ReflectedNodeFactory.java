@@ -25,7 +25,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.function.Supplier;
 
+import org.alkemy.exception.AccessException;
 import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.ArgumentSource;
 import org.alkemy.parse.AutoCastValueAccessor;
 import org.alkemy.parse.InterfaceDefaultInstance;
 import org.alkemy.parse.NodeFactory;
@@ -37,11 +39,13 @@ public class ReflectedNodeFactory implements NodeFactory
 {
     private final Supplier<Object> typeCtor;
     private final Supplier<Object> componentTypeCtor;
+    private final ReflectedSourceFactory sourceFactory;
     private final AutoCastValueAccessor valueAccessor;
 
     ReflectedNodeFactory(AutoCastValueAccessor valueAccessor)
     {
         this.typeCtor = getCtor(InterfaceDefaultInstance.get(valueAccessor.type()));
+        this.sourceFactory = new ReflectedSourceFactory(InterfaceDefaultInstance.get(valueAccessor.type()), typeCtor);
         this.componentTypeCtor = valueAccessor.componentType() != null ? //
         getCtor(InterfaceDefaultInstance.get(valueAccessor.componentType()))
                 : null;
@@ -82,12 +86,39 @@ public class ReflectedNodeFactory implements NodeFactory
         return typeCtor.get();
     }
 
+    @Override
+    public Object newInstance(ArgumentSource args) throws AlkemyException
+    {
+        if (valueAccessor.isCollection())
+        {
+            throw new AccessException("Collection '%s' can't be created from an argument source.", valueName());
+        }
+        try
+        {
+            return sourceFactory.apply(args);
+        }
+        catch (AlkemyException e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            throw new AccessException("Provided arguments do not match the fields of type '%s'.", e, type());
+        }
+    }
+
     @Override
     public Class<?> type() throws AlkemyException
     {
         return valueAccessor.type();
     }
 
+    @Override
+    public boolean isNestedContainer()
+    {
+        return valueAccessor.isNestedContainer();
+    }
+
     @Override
     public Class<?> componentType() throws AlkemyException
     {
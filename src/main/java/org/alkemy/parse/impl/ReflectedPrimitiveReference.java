@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.alkemy.exception.TypeMismatch;
+import org.alkemy.util.ValueConverter;
+
+/**
+ * Reflected accessor of a primitive field, used if the type is neither instrumented nor modeled, nor its accessors can be
+ * generated. The getter and setter are adapted to the exact {@code (Object)T} and {@code (Object, T)void} types of the field,
+ * so the subclasses invoke them with {@link MethodHandle#invokeExact(Object...)} with no boxing. Loosely typed values are
+ * converted by the field's own {@link ValueConverter}.
+ */
+abstract class ReflectedPrimitiveReference extends Reference
+{
+    protected final MethodHandle getter;
+    protected final MethodHandle setter;
+    protected final ValueConverter converter;
+
+    ReflectedPrimitiveReference(Field f) throws IllegalAccessException
+    {
+        super(f);
+
+        converter = ValueConverter.create(f.getType());
+        f.setAccessible(true);
+        final Class<?> type = f.getType();
+        final MethodHandle get = MethodHandles.lookup().unreflectGetter(f);
+        final MethodHandle set = MethodHandles.lookup().unreflectSetter(f);
+        if (Modifier.isStatic(f.getModifiers()))
+        {
+            getter = MethodHandles.dropArguments(get, 0, Object.class);
+            setter = MethodHandles.dropArguments(set, 0, Object.class);
+        }
+        else
+        {
+            getter = get.asType(MethodType.methodType(type, Object.class));
+            setter = set.asType(MethodType.methodType(void.class, Object.class, type));
+        }
+    }
+
+    protected TypeMismatch getFailed(Object parent, Throwable cause)
+    {
+        return new TypeMismatch("Can't get value from parent type '%s' for target '%s' of type '%s'", cause, parent != null
+                ? parent.getClass().getName() : "null", valueName(), type().getName());
+    }
+
+    protected TypeMismatch setFailed(Object value, Throwable cause)
+    {
+        return new TypeMismatch("Can't set into type '%s' for target '%s' the value '%s' of type '%s'", cause, type().getName(),
+                valueName(), value, value != null ? value.getClass().getName() : "null");
+    }
+}
@@ -28,7 +28,7 @@ import java.lang.reflect.Field;
 import org.alkemy.exception.AlkemyException;
 import org.alkemy.exception.TypeMismatch;
 import org.alkemy.util.AlkemyUtils;
-import org.alkemy.util.NumberConversion;
+import org.alkemy.util.ValueConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,13 +41,13 @@ public class ReflectedReference extends Reference
     private MethodHandle getter;
     private MethodHandle setter;
 
-    private final int rank;
+    private final ValueConverter converter;
 
     public ReflectedReference(Field f)
     {
         super(f);
         isEnum = f.getType().isEnum();
-        rank = NumberConversion.getRank(f.getType());
+        converter = ValueConverter.create(f.getType());
 
         try
         {
@@ -193,7 +193,7 @@ public class ReflectedReference extends Reference
     {
         try
         {
-            value = rank != -1 ? NumberConversion.convert(value, rank) : value;
+            value = converter.convert(value);
             if (f != null) f.set(parent, value);
             else
                 setter.invoke(parent, value);
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.alkemy.annotations.Order;
+import org.alkemy.parse.ArgumentSource;
+import org.alkemy.parse.ValueAccessor;
+import org.alkemy.util.AlkemyUtils;
+
+/**
+ * Creates instances of a type from an {@link ArgumentSource} without instrumentation nor a compile-time model: the no-args
+ * constructor, then each assignable field, as in the {@link Order} and then in declaration order, through its typed accessor
+ * (primitives are not boxed).
+ */
+class ReflectedSourceFactory implements Function<ArgumentSource, Object>
+{
+    private final Class<?> type;
+    private final Supplier<?> ctor;
+    private volatile List<BiConsumer<ArgumentSource, Object>> assigners; // lazy
+
+    ReflectedSourceFactory(Class<?> type, Supplier<?> ctor)
+    {
+        this.type = type;
+        this.ctor = ctor;
+    }
+
+    @Override
+    public Object apply(ArgumentSource args)
+    {
+        final Object instance = ctor.get();
+        for (BiConsumer<ArgumentSource, Object> assigner : assigners())
+        {
+            assigner.accept(args, instance);
+        }
+        return instance;
+    }
+
+    private List<BiConsumer<ArgumentSource, Object>> assigners()
+    {
+        List<BiConsumer<ArgumentSource, Object>> a = assigners;
+        if (a == null)
+        {
+            // racy but idempotent, the worst case creates the accessors twice.
+            a = orderedFields(type).stream().map(f -> assigner(f, AccessorFactory.createValueAccessor(f)))
+                    .collect(Collectors.toList());
+            assigners = a;
+        }
+        return a;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static BiConsumer<ArgumentSource, Object> assigner(Field f, ValueAccessor accessor)
+    {
+        final Class<?> type = f.getType();
+        if (type == double.class) return (args, o) -> accessor.set(args.nextDouble(), o);
+        else if (type == float.class) return (args, o) -> accessor.set(args.nextFloat(), o);
+        else if (type == long.class) return (args, o) -> accessor.set(args.nextLong(), o);
+        else if (type == int.class) return (args, o) -> accessor.set(args.nextInt(), o);
+        else if (type == short.class) return (args, o) -> accessor.set(args.nextShort(), o);
+        else if (type == char.class) return (args, o) -> accessor.set(args.nextChar(), o);
+        else if (type == byte.class) return (args, o) -> accessor.set(args.nextByte(), o);
+        else if (type == boolean.class) return (args, o) -> accessor.set(args.nextBoolean(), o);
+        else if (type.isEnum()) return (args, o) -> accessor.set(AlkemyUtils.toEnum((Class) type, args.nextObject()), o);
+        else
+            return (args, o) -> accessor.set(args.nextObject(), o);
+    }
+
+    /*
+     * The assignable fields, as in the order annotation and then in declaration order.
+     */
+    private static List<Field> orderedFields(Class<?> type)
+    {
+        final List<Field> assignable = Arrays.stream(type.getDeclaredFields())
+                .filter(f -> !f.isSynthetic() && !Modifier.isStatic(f.getModifiers()) && !Modifier.isFinal(f.getModifiers()))
+                .collect(Collectors.toList());
+        final List<Field> fields = new ArrayList<>();
+        final String[] order = TypeParser.orderOf(type);
+        if (order != null)
+        {
+            Arrays.stream(order).forEach(name -> assignable.stream().filter(f -> f.getName().equals(name)).findFirst()
+                    .ifPresent(fields::add));
+        }
+        assignable.stream().filter(f -> !fields.contains(f)).forEach(fields::add);
+        return fields;
+    }
+}
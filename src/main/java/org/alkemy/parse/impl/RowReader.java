@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.instr.AlkemizerUtils;
+import org.alkemy.instr.RowReaderWriter;
+import org.alkemy.util.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads all the leaves of an instance in a single call, in the sequence of the parsed tree (which follows {@link org.alkemy.annotations.Order}).
+ * <p>
+ * Leaves of integral types, char and boolean (as 0 or 1) are copied into a {@code long[]}, float and double leaves into a
+ * {@code double[]}, and any other leaf into an {@code Object[]}. Each array is filled from index 0, in sequence. Alternatively
+ * the leaves can be written, in sequence, into a {@link ByteBuffer} if all non primitive leaves are strings or enums (see
+ * {@link #putString(ByteBuffer, String)} and {@link #putEnum(ByteBuffer, Enum)}).
+ * <p>
+ * Where the leaves are readable from the package of the type, the reader is generated as a straight-line sequence of field
+ * reads (see {@link RowReaderWriter}). Otherwise it reads the leaves through their elements.
+ */
+public abstract class RowReader
+{
+    private static final Logger log = LoggerFactory.getLogger(RowReader.class);
+
+    private static final String ROW_READER_SUFFIX = "$$AlkemyRowReader";
+    private static final AtomicInteger ids = new AtomicInteger();
+
+    // generated readers, per type and sequence of leaves.
+    private static final ClassValue<ConcurrentMap<List<Field>, RowReader>> generated = new ClassValue<ConcurrentMap<List<Field>, RowReader>>()
+    {
+        @Override
+        protected ConcurrentMap<List<Field>, RowReader> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final int longs;
+    private final int doubles;
+    private final int objects;
+    private final boolean binary;
+
+    protected RowReader(int longs, int doubles, int objects, boolean binary)
+    {
+        this.longs = longs;
+        this.doubles = doubles;
+        this.objects = objects;
+        this.binary = binary;
+    }
+
+    /**
+     * Creates a reader of the leaves of the root node (leaves of nested nodes are not read).
+     */
+    public static RowReader create(Node<? extends AlkemyElement> root)
+    {
+        final Class<?> type = root.data().type();
+        final List<AlkemyElement> leaves = new ArrayList<>();
+        final List<Field> fields = new ArrayList<>();
+        for (Node<? extends AlkemyElement> child : root.children())
+        {
+            final AlkemyElement e = child.data();
+            if (!e.isNode())
+            {
+                leaves.add(e);
+                final AnnotatedElement member = e.desc().annotatedElement();
+                fields.add(member instanceof Field ? (Field) member : null);
+            }
+        }
+
+        if (!fields.contains(null) && fields.stream().allMatch(f -> isReadable(f, type)))
+        {
+            try
+            {
+                return generated.get(type).computeIfAbsent(fields, f -> generate(type, f));
+            }
+            catch (AlkemyException e)
+            {
+                log.debug(String.format("Can't generate the row reader of type '%s'. Read through the elements.", type.getName()), e);
+            }
+        }
+        return new ElementRowReader(leaves);
+    }
+
+    /**
+     * The number of leaves copied into the {@code long[]}.
+     */
+    public int longs()
+    {
+        return longs;
+    }
+
+    /**
+     * The number of leaves copied into the {@code double[]}.
+     */
+    public int doubles()
+    {
+        return doubles;
+    }
+
+    /**
+     * The number of leaves copied into the {@code Object[]}.
+     */
+    public int objects()
+    {
+        return objects;
+    }
+
+    /**
+     * True if the leaves can be written into a {@link ByteBuffer}.
+     */
+    public boolean isBinary()
+    {
+        return binary;
+    }
+
+    /**
+     * Copies the leaves of the instance into the arrays, which must be at least of size {@link #longs()}, {@link #doubles()}
+     * and {@link #objects()} respectively.
+     */
+    public abstract void read(Object instance, long[] longs, double[] doubles, Object[] objects);
+
+    /**
+     * Writes the leaves of the instance into the buffer, at its current position.
+     * 
+     * @throws UnsupportedOperationException
+     *             if not {@link #isBinary()}.
+     */
+    public void read(Object instance, ByteBuffer buffer)
+    {
+        if (!binary)
+        {
+            throw new UnsupportedOperationException("Only primitive, string and enum leaves can be written into a buffer.");
+        }
+        write(instance, buffer);
+    }
+
+    protected abstract void write(Object instance, ByteBuffer buffer);
+
+    /**
+     * Writes the length of the string (-1 if null) followed by its chars.
+     */
+    public static void putString(ByteBuffer buffer, String value)
+    {
+        if (value == null)
+        {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length());
+        for (int i = 0; i < value.length(); i++)
+        {
+            buffer.putChar(value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes the ordinal of the enum (-1 if null).
+     */
+    public static void putEnum(ByteBuffer buffer, Enum<?> value)
+    {
+        buffer.putInt(value != null ? value.ordinal() : -1);
+    }
+
+    static boolean isLong(Class<?> type)
+    {
+        return type.isPrimitive() && !isDouble(type);
+    }
+
+    static boolean isDouble(Class<?> type)
+    {
+        return type == double.class || type == float.class;
+    }
+
+    static boolean isBinary(Class<?> type)
+    {
+        return type.isPrimitive() || type == String.class || type.isEnum();
+    }
+
+    /*
+     * Either through the alkemizer getter, or directly if the field is accessible from the package of the type.
+     */
+    private static boolean isReadable(Field f, Class<?> type)
+    {
+        if (hasGetter(f))
+        {
+            return true;
+        }
+        final Class<?> declaring = f.getDeclaringClass();
+        if (Modifier.isPrivate(f.getModifiers()) || type.getClassLoader() == null)
+        {
+            return false;
+        }
+        return (declaring.getClassLoader() == type.getClassLoader() && Objects.equals(declaring.getPackage(), type.getPackage())) //
+                || (Modifier.isPublic(f.getModifiers()) && Modifier.isPublic(declaring.getModifiers()));
+    }
+
+    private static boolean hasGetter(Field f)
+    {
+        try
+        {
+            return MethodReferenceFactory.isInstrumented(f.getDeclaringClass()) && f.getDeclaringClass()
+                    .getDeclaredMethod(AlkemizerUtils.getGetterName(f.getName())).getReturnType() == f.getType();
+        }
+        catch (ReflectiveOperationException | SecurityException e)
+        {
+            return false;
+        }
+    }
+
+    private static RowReader generate(Class<?> type, List<Field> fields)
+    {
+        final String name = type.getName() + ROW_READER_SUFFIX + ids.incrementAndGet();
+        try
+        {
+            final byte[] bytes = RowReaderWriter.write(name.replace('.', '/'), fields, RowReader::hasGetter);
+            return (RowReader) MethodReferenceFactory.defineClass(type, name, bytes).getConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | SecurityException | LinkageError e)
+        {
+            throw new AlkemyException("Unable to generate the row reader of type '%s'", e, type.getName());
+        }
+    }
+
+    /*
+     * Reads the leaves through their elements.
+     */
+    static class ElementRowReader extends RowReader
+    {
+        private final AlkemyElement[] leaves;
+        private final Class<?>[] types;
+
+        ElementRowReader(List<AlkemyElement> leaves)
+        {
+            super((int) leaves.stream().filter(e -> isLong(e.type())).count(), //
+                    (int) leaves.stream().filter(e -> isDouble(e.type())).count(), //
+                    (int) leaves.stream().filter(e -> !e.type().isPrimitive()).count(), //
+                    leaves.stream().allMatch(e -> isBinary(e.type())));
+
+            this.leaves = leaves.toArray(new AlkemyElement[leaves.size()]);
+            this.types = leaves.stream().map(AlkemyElement::type).toArray(Class<?>[]::new);
+        }
+
+        @Override
+        public void read(Object instance, long[] longs, double[] doubles, Object[] objects)
+        {
+            int l = 0, d = 0, o = 0;
+            for (int i = 0; i < leaves.length; i++)
+            {
+                final Class<?> type = types[i];
+                if (type == long.class) longs[l++] = leaves[i].getLong(instance);
+                else if (type == int.class) longs[l++] = leaves[i].getInt(instance);
+                else if (type == short.class) longs[l++] = leaves[i].getShort(instance);
+                else if (type == char.class) longs[l++] = leaves[i].getChar(instance);
+                else if (type == byte.class) longs[l++] = leaves[i].getByte(instance);
+                else if (type == boolean.class) longs[l++] = leaves[i].getBoolean(instance) ? 1 : 0;
+                else if (type == double.class) doubles[d++] = leaves[i].getDouble(instance);
+                else if (type == float.class) doubles[d++] = leaves[i].getFloat(instance);
+                else
+                    objects[o++] = leaves[i].get(instance);
+            }
+        }
+
+        @Override
+        protected void write(Object instance, ByteBuffer buffer)
+        {
+            for (int i = 0; i < leaves.length; i++)
+            {
+                final Class<?> type = types[i];
+                if (type == long.class) buffer.putLong(leaves[i].getLong(instance));
+                else if (type == int.class) buffer.putInt(leaves[i].getInt(instance));
+                else if (type == short.class) buffer.putShort(leaves[i].getShort(instance));
+                else if (type == char.class) buffer.putChar(leaves[i].getChar(instance));
+                else if (type == byte.class) buffer.put(leaves[i].getByte(instance));
+                else if (type == boolean.class) buffer.put((byte) (leaves[i].getBoolean(instance) ? 1 : 0));
+                else if (type == double.class) buffer.putDouble(leaves[i].getDouble(instance));
+                else if (type == float.class) buffer.putFloat(leaves[i].getFloat(instance));
+                else if (type == String.class) putString(buffer, (String) leaves[i].get(instance));
+                else
+                    putEnum(buffer, (Enum<?>) leaves[i].get(instance));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.alkemy.parse.MethodInvoker;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * The elements parsed from each type, shared by every tree of a parser.
+ * <p>
+ * A fragment holds what a type declares: the elements of its fields, with their accessors and node factories, and the invokers
+ * of its methods. The children of a type are the fragments of its superclasses, from the top most, followed by its own. Since
+ * fragments are interned by declaring type, a type nested in many trees (or inherited by many types) is parsed once.
+ * <p>
+ * Fragments are kept in a {@link ClassValue} of their type, so they go away together with its class loader. A cache bounding
+ * the trees can account them once (see {@link #partOf(Object)}) and {@link #release(Object)} them once no cached tree uses them.
+ */
+public final class TypeFragments
+{
+    private final ClassValue<Holder> holders = new ClassValue<Holder>()
+    {
+        @Override
+        protected Holder computeValue(Class<?> type)
+        {
+            return new Holder();
+        }
+    };
+
+    // by identity, the objects owned by each interned fragment.
+    private final Map<Object, Fragment> parts = new MapMaker().weakKeys().weakValues().makeMap();
+
+    TypeFragments()
+    {
+    }
+
+    Fragment get(Class<?> type, Function<Class<?>, Fragment> parser)
+    {
+        return holders.get(type).get(type, parser);
+    }
+
+    /**
+     * Returns the interned fragment the object belongs to, or null if it's not part of any.
+     */
+    public Object partOf(Object o)
+    {
+        return parts.get(o);
+    }
+
+    /**
+     * Returns the fragment of the superclass the fragment inherits from, or null if none.
+     */
+    public Object inherited(Object part)
+    {
+        return ((Fragment) part).superclass;
+    }
+
+    /**
+     * Stops sharing the fragment. The type is parsed again the next time it's requested. Trees already parsed keep it.
+     */
+    public void release(Object part)
+    {
+        final Fragment fragment = (Fragment) part;
+        if (holders.get(fragment.type).release(fragment))
+        {
+            fragment.forEachOwned(o -> parts.remove(o, fragment));
+        }
+    }
+
+    private final class Holder
+    {
+        private volatile Fragment fragment;
+
+        Fragment get(Class<?> type, Function<Class<?>, Fragment> parser)
+        {
+            Fragment f = fragment;
+            if (f == null)
+            {
+                synchronized (this) // superclasses are locked after their subclasses, never the other way.
+                {
+                    f = fragment;
+                    if (f == null)
+                    {
+                        final Fragment parsed = parser.apply(type);
+                        parsed.forEachOwned(o -> parts.putIfAbsent(o, parsed));
+                        fragment = f = parsed;
+                    }
+                }
+            }
+            return f;
+        }
+
+        synchronized boolean release(Fragment f)
+        {
+            if (fragment == f)
+            {
+                fragment = null;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /*
+     * What a type declares. The invokers and the children include the inherited ones.
+     */
+    static final class Fragment
+    {
+        private final Class<?> type;
+        private final Fragment superclass;
+        private final List<MethodInvoker> invokers;
+        private final List<AlkemyElement> elements;
+        private final List<AlkemyElement> children;
+
+        Fragment(Class<?> type, Fragment superclass, List<MethodInvoker> invokers, List<AlkemyElement> elements)
+        {
+            this.type = type;
+            this.superclass = superclass;
+            this.invokers = invokers;
+            this.elements = elements;
+
+            final List<AlkemyElement> children = new ArrayList<>();
+            if (superclass != null)
+            {
+                children.addAll(superclass.children);
+            }
+            children.addAll(elements);
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        List<MethodInvoker> invokers()
+        {
+            return invokers;
+        }
+
+        List<AlkemyElement> children()
+        {
+            return children;
+        }
+
+        /*
+         * The fragment and what it doesn't share with its superclass, including what the copies of its elements share with
+         * them (i.e. projections).
+         */
+        void forEachOwned(Consumer<Object> c)
+        {
+            c.accept(this);
+            c.accept(invokers);
+            c.accept(elements);
+            c.accept(children);
+            invokers.stream().skip(superclass != null ? superclass.invokers.size() : 0).forEach(c);
+            elements.forEach(c);
+            elements.forEach(e -> e.forEachShared(c));
+        }
+    }
+}
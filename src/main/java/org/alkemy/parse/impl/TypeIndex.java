@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.alkemy.exception.AlkemyException;
+
+/**
+ * The alkemizable types index written at build time by the {@link org.alkemy.apt.TypeIndexProcessor}.
+ * <p>
+ * For each indexed type it records which of its declared fields are leaves or nodes, which methods are leaves and its
+ * {@link org.alkemy.annotations.Order}, so parsing an indexed type does not need to probe annotations nor search for deep leaves.
+ * Types not present in the index are parsed reflectively.
+ * <p>
+ * Indexes are read once per class loader from all the {@link #RESOURCE} files it can see.
+ */
+public class TypeIndex
+{
+    public static final String RESOURCE = "META-INF/alkemy/types.idx";
+
+    private static final String TYPE = "type ";
+    private static final String LEAF = "leaf ";
+    private static final String NODE = "node ";
+    private static final String METHOD = "method ";
+    private static final String ORDER = "order ";
+
+    private static final Map<ClassLoader, Map<String, Entry>> indexes = new WeakHashMap<>();
+
+    private static final ClassValue<Optional<Entry>> entries = new ClassValue<Optional<Entry>>()
+    {
+        @Override
+        protected Optional<Entry> computeValue(Class<?> type)
+        {
+            return Optional.ofNullable(index(type.getClassLoader()).get(type.getName()));
+        }
+    };
+
+    private TypeIndex()
+    {
+    }
+
+    /**
+     * Returns the index entry of the type, or null if not indexed.
+     */
+    public static Entry entry(Class<?> type)
+    {
+        return entries.get(type).orElse(null);
+    }
+
+    /**
+     * Returns the names of all the types indexed within the class loader resources.
+     */
+    public static Set<String> typeNames(ClassLoader classLoader)
+    {
+        return index(classLoader).keySet();
+    }
+
+    /**
+     * Returns if the member is a leaf as recorded in the index of its declaring class, or null if the class is not indexed.
+     */
+    static Boolean isLeaf(AnnotatedElement member)
+    {
+        if (member instanceof Field)
+        {
+            final Entry entry = entry(((Field) member).getDeclaringClass());
+            return entry != null ? entry.leaves.contains(((Field) member).getName()) : null;
+        }
+        else if (member instanceof Method)
+        {
+            final Entry entry = entry(((Method) member).getDeclaringClass());
+            return entry != null ? entry.methods.contains(signature((Method) member)) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns if the field is a node as recorded in the index of its declaring class, or null if the class is not indexed.
+     */
+    static Boolean isNode(AnnotatedElement member)
+    {
+        if (member instanceof Field)
+        {
+            final Entry entry = entry(((Field) member).getDeclaringClass());
+            return entry != null ? entry.nodes.contains(((Field) member).getName()) : null;
+        }
+        return null;
+    }
+
+    private static Map<String, Entry> index(ClassLoader classLoader)
+    {
+        if (classLoader == null)
+        {
+            return Collections.emptyMap();
+        }
+
+        synchronized (indexes)
+        {
+            Map<String, Entry> index = indexes.get(classLoader);
+            if (index == null)
+            {
+                index = Collections.unmodifiableMap(load(classLoader));
+                indexes.put(classLoader, index);
+            }
+            return index;
+        }
+    }
+
+    private static Map<String, Entry> load(ClassLoader classLoader)
+    {
+        final Map<String, Entry> index = new HashMap<>();
+        try
+        {
+            final Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements())
+            {
+                final URL url = resources.nextElement();
+                try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))
+                {
+                    index.putAll(read(reader));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new AlkemyException("Unable to read the alkemy type index '%s'.", e, RESOURCE);
+        }
+        return index;
+    }
+
+    /**
+     * Reads an index as written by {@link #write(Writer, Map)}.
+     */
+    public static Map<String, Entry> read(Reader reader) throws IOException
+    {
+        final Map<String, Entry> index = new LinkedHashMap<>();
+        final BufferedReader br = new BufferedReader(reader);
+
+        String type = null;
+        Entry entry = null;
+        for (String line = br.readLine(); line != null; line = br.readLine())
+        {
+            if (line.startsWith(TYPE))
+            {
+                type = line.substring(TYPE.length());
+                entry = new Entry();
+                index.put(type, entry);
+            }
+            else if (entry == null || line.isEmpty() || line.startsWith("#"))
+            {
+                continue;
+            }
+            else if (line.startsWith(LEAF)) entry.leaves.add(line.substring(LEAF.length()));
+            else if (line.startsWith(NODE)) entry.nodes.add(line.substring(NODE.length()));
+            else if (line.startsWith(METHOD)) entry.methods.add(line.substring(METHOD.length()));
+            else if (line.startsWith(ORDER)) entry.order = line.substring(ORDER.length()).split(" ");
+        }
+        return index;
+    }
+
+    /**
+     * Writes the index entries.
+     */
+    public static void write(Writer writer, Map<String, Entry> index)
+    {
+        final PrintWriter pw = new PrintWriter(writer);
+        pw.println("# alkemy type index");
+        index.forEach((type, entry) ->
+        {
+            pw.println(TYPE + type);
+            entry.leaves.forEach(f -> pw.println(LEAF + f));
+            entry.nodes.forEach(f -> pw.println(NODE + f));
+            entry.methods.forEach(m -> pw.println(METHOD + m));
+            if (entry.order != null)
+            {
+                pw.println(ORDER + Stream.of(entry.order).collect(Collectors.joining(" ")));
+            }
+        });
+        pw.flush();
+    }
+
+    /**
+     * The method signature as recorded in the index, i.e. <code>foo(int,java.lang.String[])</code>.
+     */
+    static String signature(Method m)
+    {
+        return Stream.of(m.getParameterTypes()).map(Class::getCanonicalName).collect(Collectors.joining(",", m.getName() + "(",
+                ")"));
+    }
+
+    /**
+     * The indexed information of a single type.
+     */
+    public static class Entry
+    {
+        private final Set<String> leaves = new LinkedHashSet<>();
+        private final Set<String> nodes = new LinkedHashSet<>();
+        private final Set<String> methods = new LinkedHashSet<>();
+        private String[] order;
+
+        private Entry()
+        {
+        }
+
+        public static Entry create(List<String> leaves, List<String> nodes, List<String> methods, String[] order)
+        {
+            final Entry entry = new Entry();
+            entry.leaves.addAll(leaves);
+            entry.nodes.addAll(nodes);
+            entry.methods.addAll(methods);
+            entry.order = order;
+            return entry;
+        }
+
+        public List<String> leaves()
+        {
+            return new ArrayList<>(leaves);
+        }
+
+        public List<String> nodes()
+        {
+            return new ArrayList<>(nodes);
+        }
+
+        public List<String> methods()
+        {
+            return new ArrayList<>(methods);
+        }
+
+        /**
+         * The {@link org.alkemy.annotations.Order} of the type, or null if none.
+         */
+        public String[] order()
+        {
+            return order != null ? order.clone() : null;
+        }
+    }
+}
@@ -23,12 +23,18 @@ package org.alkemy.parse.impl;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
 
 import org.alkemy.annotations.AlkemyLeaf;
@@ -39,6 +45,8 @@ import org.alkemy.parse.AlkemyParser;
 import org.alkemy.parse.MethodInvoker;
 import org.alkemy.parse.NodeFactory;
 import org.alkemy.parse.ValueAccessor;
+import org.alkemy.parse.impl.TypeFragments.Fragment;
+import org.alkemy.util.Assertions;
 import org.alkemy.util.Node;
 import org.alkemy.util.Nodes;
 import org.alkemy.util.Types;
@@ -47,6 +55,10 @@ import org.alkemy.util.Types;
  * The main parser. It parses fields and method alkemizations (see {@link AlkemyLeaf}, as well as
  * the {@link Order} annotation.
  * <p>
+ * Inherited alkemizations come first, from the top most superclass. Each type is parsed once per parser and its elements are
+ * shared by every occurrence of the type (and its subclasses) in all the parsed trees, see {@link TypeFragments}. Only the
+ * nodes wrapping them are allocated per position.
+ * <p>
  * Example:
  * 
  * <pre>
@@ -71,15 +83,48 @@ import org.alkemy.util.Types;
 public class TypeParser implements AlkemyParser
 {
     private final AlkemyLexer<AnnotatedMember> lexer;
+    private final boolean lazy;
+    private final ForkJoinPool pool;
+    private final TypeFragments fragments = new TypeFragments();
 
-    private TypeParser(AlkemyLexer<AnnotatedMember> lexer)
+    private TypeParser(AlkemyLexer<AnnotatedMember> lexer, boolean lazy, ForkJoinPool pool)
     {
         this.lexer = lexer;
+        this.lazy = lazy;
+        this.pool = pool;
     }
 
     public static AlkemyParser create(AlkemyLexer<AnnotatedMember> lexer)
     {
-        return new TypeParser(lexer);
+        return new TypeParser(lexer, false, null);
+    }
+
+    /**
+     * Creates a parser which parses the sibling subtrees of each node as fork-join tasks in the provided pool. The tree is
+     * then assembled on the calling thread, keeping the declaration (or {@link Order}) order of the children.
+     */
+    public static AlkemyParser parallel(AlkemyLexer<AnnotatedMember> lexer, ForkJoinPool pool)
+    {
+        Assertions.nonNull(pool);
+        return new TypeParser(lexer, false, pool);
+    }
+
+    /**
+     * Creates a parser whose trees materialize each node's children the first time they are requested (see
+     * {@link Nodes#lazy(Object, java.util.function.Function, java.util.function.Predicate)}), so only the visited branches
+     * are parsed.
+     */
+    public static AlkemyParser lazy(AlkemyLexer<AnnotatedMember> lexer)
+    {
+        return new TypeParser(lexer, true, null);
+    }
+
+    /**
+     * Returns the fragments shared by the trees of this parser.
+     */
+    public TypeFragments fragments()
+    {
+        return fragments;
     }
 
     @Override
@@ -87,18 +132,133 @@ public class TypeParser implements AlkemyParser
     {
         final ValueAccessor valueAccessor = AccessorFactory.createSelfAccessor(type);
         final NodeFactory nodeFactory = AccessorFactory.createNodeFactory(valueAccessor);
-        final List<MethodInvoker> methodInvokers = AccessorFactory.createInvokers(getLeafMethods(type));
         final AnnotatedMember am = new AnnotatedMember(type, type.getName(), type);
-        final AlkemyElement root = lexer.createNode(am, nodeFactory, valueAccessor, methodInvokers, type);
-        return _parse(nodeFactory, Nodes.arborescence(root)).build();
+        final AlkemyElement root = lexer.createNode(am, nodeFactory, valueAccessor, fragment(type).invokers(), type);
+        if (lazy)
+        {
+            return Nodes.lazy(root, this::children, AlkemyElement::isNode, (a, e) -> parsedType(a) == parsedType(e));
+        }
+        if (pool != null)
+        {
+            final Set<Class<?>> visited = ConcurrentHashMap.newKeySet();
+            visited.add(type);
+            pool.invoke(new BranchTask(this, type, visited));
+        }
+        final Deque<Class<?>> path = new ArrayDeque<>();
+        path.push(type);
+        return _parse(root, Nodes.arborescence(root), path).build();
+    }
+
+    private Node.Builder<AlkemyElement> _parse(AlkemyElement parentElement, Node.Builder<AlkemyElement> parent,
+            Deque<Class<?>> path)
+    {
+        for (AlkemyElement child : children(parentElement))
+        {
+            if (!child.isNode())
+            {
+                parent.addChild(child);
+                continue;
+            }
+
+            final int levels = levelsUp(path, parsedType(child));
+            if (levels > 0) // recursive type
+            {
+                parent.addReference(child, levels);
+            }
+            else
+            {
+                path.push(parsedType(child));
+                _parse(child, parent.addChild(child), path);
+                path.pop();
+            }
+        }
+        return parent;
+    }
+
+    /*
+     * Parses the children of the type, forking a task per child node not yet visited. Results are interned in the fragments.
+     */
+    private static final class BranchTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final TypeParser parser;
+        private final Class<?> type;
+        private final Set<Class<?>> visited;
+
+        BranchTask(TypeParser parser, Class<?> type, Set<Class<?>> visited)
+        {
+            this.parser = parser;
+            this.type = type;
+            this.visited = visited;
+        }
+
+        @Override
+        protected void compute()
+        {
+            final List<BranchTask> subtasks = new ArrayList<>();
+            for (AlkemyElement child : parser.fragment(type).children())
+            {
+                if (child.isNode() && visited.add(parsedType(child)))
+                {
+                    subtasks.add(new BranchTask(parser, parsedType(child), visited));
+                }
+            }
+            invokeAll(subtasks);
+        }
     }
 
-    private Node.Builder<AlkemyElement> _parse(NodeFactory parentNodeFactory, Node.Builder<AlkemyElement> parent)
+    private static int levelsUp(Deque<Class<?>> path, Class<?> type)
     {
-        final Class<?> parentComponentType = parentNodeFactory.componentType();
-        final Class<?> parentType = parentComponentType != null ? parentComponentType : parentNodeFactory.type();
+        int levels = 1;
+        for (Class<?> ancestor : path)
+        {
+            if (ancestor == type)
+            {
+                return levels;
+            }
+            levels++;
+        }
+        return 0;
+    }
 
-        for (final Field f : sortIfRequired(parentType.getDeclaredFields(), parentType.getAnnotation(Order.class), parentType))
+    private static Class<?> parsedType(AlkemyElement e)
+    {
+        final Class<?> componentType = e.componentType();
+        return componentType != null ? componentType : e.type();
+    }
+
+    /*
+     * Returns the direct children of a node, inherited first.
+     */
+    private List<AlkemyElement> children(AlkemyElement parentElement)
+    {
+        return fragment(parsedType(parentElement)).children();
+    }
+
+    private Fragment fragment(Class<?> type)
+    {
+        return fragments.get(type, this::declared);
+    }
+
+    /*
+     * Parses what the type declares (not inherited), on top of its user defined superclass.
+     */
+    private Fragment declared(Class<?> type)
+    {
+        final Class<?> s = type.getSuperclass();
+        final Fragment superclass = s != null && s.getClassLoader() != null ? fragment(s) : null;
+
+        final List<MethodInvoker> methods = new ArrayList<>();
+        if (superclass != null)
+        {
+            methods.addAll(superclass.invokers());
+        }
+        methods.addAll(AccessorFactory.createInvokers(getDeclaredLeafMethods(type))); // overriding methods are added last.
+        final List<MethodInvoker> invokers = Collections.unmodifiableList(methods);
+
+        final List<AlkemyElement> elements = new ArrayList<>();
+        for (final Field f : sortIfRequired(type.getDeclaredFields(), orderOf(type), type))
         {
             final Class<?> childComponentType = Types.getComponentType(f);
             final Class<?> childType = childComponentType != null ? childComponentType : f.getType();
@@ -107,22 +267,19 @@ public class TypeParser implements AlkemyParser
             if (lexer.isLeaf(am))
             {
                 final ValueAccessor valueAccessor = AccessorFactory.createValueAccessor(f);
-                parent.addChild(lexer.createLeaf(am, valueAccessor));
+                elements.add(lexer.createLeaf(am, valueAccessor));
             }
             else if (lexer.isNode(am))
             {
                 final ValueAccessor valueAccessor = AccessorFactory.createValueAccessor(f);
                 final NodeFactory nodeFactory = AccessorFactory.createNodeFactory(valueAccessor);
-                final List<Method> leafMethods = getLeafMethods(parentType);
-                final List<MethodInvoker> methodInvokers = AccessorFactory.createInvokers(leafMethods);
-                final AlkemyElement node = lexer.createNode(am, nodeFactory, valueAccessor, methodInvokers, am.type);
-                _parse(nodeFactory, parent.addChild(node));
+                elements.add(lexer.createNode(am, nodeFactory, valueAccessor, invokers, am.type));
             }
         }
-        return parent;
+        return new Fragment(type, superclass, invokers, Collections.unmodifiableList(elements));
     }
 
-    private List<Method> getLeafMethods(Class<?> type)
+    private List<Method> getDeclaredLeafMethods(Class<?> type)
     {
         final List<Method> ms = new ArrayList<Method>();
         for (Method m : type.getDeclaredMethods())
@@ -135,13 +292,23 @@ public class TypeParser implements AlkemyParser
         return ms;
     }
 
-    private Field[] sortIfRequired(Field[] fields, Order order, final Class<?> type)
+    static String[] orderOf(Class<?> type)
+    {
+        final TypeIndex.Entry entry = TypeIndex.entry(type);
+        if (entry != null)
+        {
+            return entry.order();
+        }
+        final Order order = type.getAnnotation(Order.class);
+        return order != null ? order.value() : null;
+    }
+
+    private Field[] sortIfRequired(Field[] fields, String[] orderedFieldNames, final Class<?> type)
     {
-        if (order != null)
+        if (orderedFieldNames != null)
         {
             final Set<String> fieldNames = Arrays.asList(fields).stream().map(f -> f.getName()).collect(Collectors.toSet());
             final Map<String, Integer> fieldOrder = new HashMap<>();
-            final String[] orderedFieldNames = order.value();
             for (int i = 0; i < orderedFieldNames.length; i++)
                 fieldOrder.put(orderedFieldNames[i], i);
 
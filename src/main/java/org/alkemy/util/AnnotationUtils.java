@@ -23,55 +23,111 @@ package org.alkemy.util;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.Member;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.alkemy.annotations.AlkemyLeaf;
 import org.alkemy.exception.AlkemyException;
 
 public class AnnotationUtils
 {
+    // resolved alkemy type of each annotation type. Empty if not qualified as {@link AlkemyLeaf}.
+    private static final ClassValue<Optional<Class<? extends Annotation>>> qualifiedTypes = new ClassValue<Optional<Class<? extends Annotation>>>()
+    {
+        @Override
+        protected Optional<Class<? extends Annotation>> computeValue(Class<?> type)
+        {
+            return Optional.ofNullable(resolveQualifiedType(type));
+        }
+    };
+
+    // resolved alkemy types, per declaring class and member.
+    private static final ClassValue<ConcurrentMap<AnnotatedElement, Optional<Class<? extends Annotation>>>> alkemyTypes = new ClassValue<ConcurrentMap<AnnotatedElement, Optional<Class<? extends Annotation>>>>()
+    {
+        @Override
+        protected ConcurrentMap<AnnotatedElement, Optional<Class<? extends Annotation>>> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private AnnotationUtils()
+    {
+    }
+
     /**
      * If the annotated element is an alkemy element, it returns its type.
      * <p>
      * The alkemy type either, the {@link AlkemyLeaf#value()} if specified, or the annotation
      * qualified as {@link AlkemyLeaf} type.
+     * <p>
+     * Results are cached per member (fields, methods, constructors and classes), so the annotations of each member are
+     * reflected only once.
      */
     public static Class<? extends Annotation> findAlkemyTypes(AnnotatedElement ae)
     {
-        final List<Pair<Annotation, AlkemyLeaf>> alkemyType = AnnotationUtils.getAnnotationsQualifiedAs(ae, AlkemyLeaf.class);
-        if (alkemyType.size() > 1)
+        final Class<?> owner = ownerOf(ae);
+        if (owner == null)
         {
-            throw new AlkemyException("Invalid configuration. Multiple alkemy visitors defined for a single element.");
-        }
-        if (alkemyType.isEmpty())
-        {
-            return null;
+            return resolveAlkemyType(ae);
         }
-        else
+
+        final ConcurrentMap<AnnotatedElement, Optional<Class<? extends Annotation>>> cached = alkemyTypes.get(owner);
+        Optional<Class<? extends Annotation>> alkemyType = cached.get(ae);
+        if (alkemyType == null)
         {
-            final Class<? extends Annotation> value = alkemyType.get(0).second.value();
-            return Annotation.class == value ? alkemyType.get(0).first.annotationType() : value;
+            // not computed within the map, as an invalid configuration must throw every time.
+            alkemyType = Optional.ofNullable(resolveAlkemyType(ae));
+            cached.putIfAbsent(ae, alkemyType);
         }
+        return alkemyType.orElse(null);
     }
 
-    private static <QualifyingType extends Annotation> List<Pair<Annotation, QualifyingType>> getAnnotationsQualifiedAs(
-            AnnotatedElement target, Class<QualifyingType> type)
+    /**
+     * If the annotation type is qualified as {@link AlkemyLeaf}, it returns its alkemy type. Otherwise returns null.
+     */
+    public static Class<? extends Annotation> qualifiedType(Class<? extends Annotation> annotationType)
     {
-        return getAnnotationsQualifiedAs(target.getAnnotations(), type);
+        return qualifiedTypes.get(annotationType).orElse(null);
+    }
+
+    private static Class<?> ownerOf(AnnotatedElement ae)
+    {
+        if (ae instanceof Member)
+        {
+            return ((Member) ae).getDeclaringClass();
+        }
+        return ae instanceof Class ? (Class<?>) ae : null;
     }
 
-    private static <QualifyingType extends Annotation> List<Pair<Annotation, QualifyingType>> getAnnotationsQualifiedAs(
-            Annotation[] as, Class<QualifyingType> type)
+    private static Class<? extends Annotation> resolveAlkemyType(AnnotatedElement ae)
     {
-        final List<Pair<Annotation, QualifyingType>> pairs = new ArrayList<Pair<Annotation, QualifyingType>>();
-        for (final Annotation a : as)
+        Class<? extends Annotation> alkemyType = null;
+        for (final Annotation a : ae.getAnnotations())
         {
-            if (a.annotationType().isAnnotationPresent(type))
+            final Class<? extends Annotation> qualified = qualifiedType(a.annotationType());
+            if (qualified != null)
             {
-                pairs.add(Pair.create(a, a.annotationType().getAnnotation(type)));
+                if (alkemyType != null)
+                {
+                    throw new AlkemyException("Invalid configuration. Multiple alkemy visitors defined for a single element.");
+                }
+                alkemyType = qualified;
             }
         }
-        return pairs;
+        return alkemyType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Annotation> resolveQualifiedType(Class<?> annotationType)
+    {
+        final AlkemyLeaf leaf = annotationType.getAnnotation(AlkemyLeaf.class);
+        if (leaf == null)
+        {
+            return null;
+        }
+        return Annotation.class == leaf.value() ? (Class<? extends Annotation>) annotationType : leaf.value();
     }
 }
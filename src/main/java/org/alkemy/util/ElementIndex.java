@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.alkemy.parse.impl.AlkemyElement;
+
+/**
+ * The alkemy elements of a branch grouped by {@link AlkemyElement#alkemyType()}, in pre-order.
+ */
+class ElementIndex<E>
+{
+    private final Map<Class<? extends Annotation>, List<E>> elements;
+    private final Map<Class<? extends Annotation>, List<E>> leaves;
+    private final Map<Class<? extends Annotation>, List<E>> nodes;
+
+    private ElementIndex(Node<E> node)
+    {
+        final Map<Class<? extends Annotation>, List<E>> elements = new HashMap<>();
+        final Map<Class<? extends Annotation>, List<E>> leaves = new HashMap<>();
+        final Map<Class<? extends Annotation>, List<E>> nodes = new HashMap<>();
+        for (E e : new Traversers.PreorderIterable<E>(node))
+        {
+            if (e instanceof AlkemyElement && ((AlkemyElement) e).alkemyType() != null)
+            {
+                final AlkemyElement ae = (AlkemyElement) e;
+                elements.computeIfAbsent(ae.alkemyType(), k -> new ArrayList<>()).add(e);
+                (ae.isNode() ? nodes : leaves).computeIfAbsent(ae.alkemyType(), k -> new ArrayList<>()).add(e);
+            }
+        }
+        this.elements = compact(elements);
+        this.leaves = compact(leaves);
+        this.nodes = compact(nodes);
+    }
+
+    static <E> ElementIndex<E> of(Node<E> node)
+    {
+        return new ElementIndex<>(node);
+    }
+
+    List<E> elementsOf(Class<? extends Annotation> alkemyType)
+    {
+        return elements.getOrDefault(alkemyType, Collections.emptyList());
+    }
+
+    List<E> leavesOf(Class<? extends Annotation> alkemyType)
+    {
+        return leaves.getOrDefault(alkemyType, Collections.emptyList());
+    }
+
+    List<E> nodesOf(Class<? extends Annotation> alkemyType)
+    {
+        return nodes.getOrDefault(alkemyType, Collections.emptyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Map<Class<? extends Annotation>, List<E>> compact(Map<Class<? extends Annotation>, List<E>> index)
+    {
+        final Map<Class<? extends Annotation>, List<E>> compact = new HashMap<>(index.size() * 4 / 3 + 1);
+        index.forEach((k, v) -> compact.put(k, Collections.unmodifiableList(Arrays.asList((E[]) v.toArray()))));
+        return compact;
+    }
+}
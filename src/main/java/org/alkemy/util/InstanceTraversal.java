@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.alkemy.parse.impl.AlkemyElement;
+
+/**
+ * Traverses an object graph following its parsed tree, i.e. an entity and the instances referred by its node elements.
+ * <p>
+ * Back-references (see {@link Node#reference()}) are followed into the referred subtree, so recursive types are traversed as
+ * deep as the instances go, up to a max depth. Each instance is traversed once (identity based), which makes the traversal
+ * safe for cyclic graphs.
+ */
+public class InstanceTraversal
+{
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    private InstanceTraversal()
+    {
+    }
+
+    /**
+     * As {@link #traverse(Node, Object, int, BiConsumer)} up to {@link #DEFAULT_MAX_DEPTH}.
+     */
+    public static <E extends AlkemyElement> void traverse(Node<E> root, Object instance, BiConsumer<? super E, Object> visitor)
+    {
+        traverse(root, instance, DEFAULT_MAX_DEPTH, visitor);
+    }
+
+    /**
+     * Visits in pre-order each element together with the instance it belongs to, that is, its value is
+     * <code>element.get(instance)</code>. The root element is visited with the root instance.
+     * <p>
+     * Node elements of collections, maps or arrays are traversed for each of their items (map values). Instances nested deeper than the max depth
+     * or already traversed are not traversed, but the element referring to them is still visited.
+     */
+    public static <E extends AlkemyElement> void traverse(Node<E> root, Object instance, int maxDepth,
+            BiConsumer<? super E, Object> visitor)
+    {
+        Assertions.noneNull(root, instance, visitor);
+
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.add(instance);
+        visitor.accept(root.data(), instance);
+        traverse(root, instance, 0, maxDepth, visitor, visited);
+    }
+
+    private static <E extends AlkemyElement> void traverse(Node<E> node, Object instance, int depth, int maxDepth,
+            BiConsumer<? super E, Object> visitor, Set<Object> visited)
+    {
+        final Node<E> branch = node.reference() != null ? node.reference() : node;
+        for (Node<E> child : branch.children())
+        {
+            final E e = child.data();
+            visitor.accept(e, instance);
+            if (e.isNode() && depth < maxDepth)
+            {
+                traverseItems(child, e.get(instance), depth + 1, maxDepth, visitor, visited);
+            }
+        }
+    }
+
+    /*
+     * Unwraps (nested) collections, map values and arrays.
+     */
+    private static <E extends AlkemyElement> void traverseItems(Node<E> node, Object value, int depth, int maxDepth,
+            BiConsumer<? super E, Object> visitor, Set<Object> visited)
+    {
+        if (value instanceof Collection)
+        {
+            for (Object item : (Collection<?>) value)
+            {
+                traverseItems(node, item, depth, maxDepth, visitor, visited);
+            }
+        }
+        else if (value instanceof Map)
+        {
+            for (Object item : ((Map<?, ?>) value).values())
+            {
+                traverseItems(node, item, depth, maxDepth, visitor, visited);
+            }
+        }
+        else if (value != null && value.getClass().isArray())
+        {
+            for (int i = 0; i < Array.getLength(value); i++)
+            {
+                traverseItems(node, Array.get(value, i), depth, maxDepth, visitor, visited);
+            }
+        }
+        else
+        {
+            traverseIfNotVisited(node, value, depth, maxDepth, visitor, visited);
+        }
+    }
+
+    private static <E extends AlkemyElement> void traverseIfNotVisited(Node<E> node, Object instance, int depth, int maxDepth,
+            BiConsumer<? super E, Object> visitor, Set<Object> visited)
+    {
+        if (instance != null && visited.add(instance))
+        {
+            traverse(node, instance, depth, maxDepth, visitor, visited);
+        }
+    }
+}
@@ -21,11 +21,13 @@
  *******************************************************************************/
 package org.alkemy.util;
 
+import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import org.alkemy.parse.impl.AlkemyElement;
 import org.alkemy.util.Traversers.Callback;
 import org.alkemy.util.Traversers.Traversable;
 
@@ -39,6 +41,14 @@ public interface Node<E> extends Traversable<E>
 
     boolean hasChildren();
 
+    /**
+     * If this node is a back-reference, returns the ancestor it refers to. Otherwise returns null.
+     * <p>
+     * Back-references stand for a repeated type within its own branch (i.e. recursive types). They have no children, so
+     * traversals are always finite, and the referred subtree is reachable through this method.
+     */
+    Node<E> reference();
+
     /**
      * Returns the number of jumps needed to reach from this node to the lowest leaf of this branch.
      * <p>
@@ -61,30 +71,48 @@ public interface Node<E> extends Traversable<E>
     void drainTo(Collection<? super E> c);
 
     /**
-     * Establish that any {@link #iterator()} created by this node will be pre-order iterator. This is the default behaviour.
+     * Returns, in pre-order, the elements of this branch whose {@link AlkemyElement#alkemyType()} is the given type.
      * <p>
-     * Equivalent to {@link Traversers#preorder(node)}
+     * The branch is indexed on the first call, so later lookups only touch the matching elements. Elements which are not
+     * {@link AlkemyElement} are never returned.
+     */
+    List<E> elementsOf(Class<? extends Annotation> alkemyType);
+
+    /**
+     * As {@link #elementsOf(Class)} returning only the leaf elements.
+     */
+    List<E> leavesOf(Class<? extends Annotation> alkemyType);
+
+    /**
+     * As {@link #elementsOf(Class)} returning only the node elements.
+     */
+    List<E> nodesOf(Class<? extends Annotation> alkemyType);
+
+    /**
+     * Returns a view of this node whose {@link #iterator()} is a pre-order iterator. This is the default behaviour.
+     * <p>
+     * The node itself is not modified. Equivalent to {@link Traversers#preorder(node)}
      */
     Node<E> preorder();
     
     /**
-     * Establish that any {@link #iterator()} created by this node will be pre-order iterator. This is the default behaviour.
+     * Returns a view of this node whose {@link #iterator()} is a pre-order iterator notifying the callback.
      * <p>
-     * Equivalent to {@link Traversers#preorder(Node, Callback))}
+     * The node itself is not modified. Equivalent to {@link Traversers#preorder(Node, Callback))}
      */
     Node<E> preorder(Callback<E> callback);
 
     /**
-     * Establish that any {@link #iterator()} created by this node will be post-order iterator. 
+     * Returns a view of this node whose {@link #iterator()} is a post-order iterator.
      * <p>
-     * Equivalent to {@link Traversers#postorder(node)}
+     * The node itself is not modified. Equivalent to {@link Traversers#postorder(node)}
      */
     Node<E> postorder();
     
     /**
-     * Establish that any {@link #iterator()} created by this node will be post-order iterator. 
+     * Returns a view of this node whose {@link #iterator()} is a post-order iterator notifying the callback.
      * <p>
-     * Equivalent to {@link Traversers#postorder(Node, Callback)}
+     * The node itself is not modified. Equivalent to {@link Traversers#postorder(Node, Callback)}
      */
     Node<E> postorder(Callback<E> callback);
 
@@ -92,6 +120,12 @@ public interface Node<E> extends Traversable<E>
     {
         Builder<E> addChild(E data);
 
+        /**
+         * Adds a back-reference child (see {@link Node#reference()}) to the ancestor as many levels above it, being 1 this
+         * node.
+         */
+        Builder<E> addReference(E data, int levels);
+
         Node<E> build();
     }
 }
@@ -24,16 +24,20 @@ package org.alkemy.util;
 import static org.alkemy.util.Traversers.TraverseStrategy.POSTORDER;
 import static org.alkemy.util.Traversers.TraverseStrategy.PREORDER;
 
+import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.alkemy.Alkemy;
+import org.alkemy.exception.AlkemyException;
 import org.alkemy.parse.impl.AlkemyElement;
 import org.alkemy.util.Node.Builder;
 import org.alkemy.util.Traversers.Callback;
@@ -53,16 +57,84 @@ public class Nodes
     public static <E, T> Builder<T> copy(Node<E> orig, Builder<T> dest, Predicate<? super E> p, Function<E, T> f)
     {
         orig.children().stream() //
-                .filter(filter -> p.test(filter.data())).forEach(e -> copy(e, dest.addChild(f.apply(e.data())), p, f));
+                .filter(filter -> p.test(filter.data())).forEach(e ->
+                {
+                    if (e.reference() != null)
+                    {
+                        dest.addReference(f.apply(e.data()), levels(e, e.reference()));
+                    }
+                    else
+                    {
+                        copy(e, dest.addChild(f.apply(e.data())), p, f);
+                    }
+                });
         return dest;
     }
 
+    private static int levels(Node<?> node, Node<?> ancestor)
+    {
+        int levels = 0;
+        for (Node<?> n = node; n != ancestor; n = n.parent())
+        {
+            levels++;
+        }
+        return levels;
+    }
+
+    private static <E> Node<E> ancestor(Node<E> node, int levels)
+    {
+        Node<E> ancestor = node;
+        for (int i = 0; i < levels; i++)
+        {
+            ancestor = ancestor.parent();
+        }
+        return ancestor;
+    }
+
+    /**
+     * Creates a tree whose children are materialized the first time they are requested.
+     * <p>
+     * The children of each node are the result of applying the expand function to its data, and nodes whose data doesn't match
+     * the branch predicate are known to have no children without expanding them. Once expanded, children are kept.
+     */
+    public static <E> Node<E> lazy(E root, Function<? super E, List<E>> expand, Predicate<? super E> branch)
+    {
+        return lazy(root, expand, branch, (ancestor, e) -> false);
+    }
+
+    /**
+     * As {@link #lazy(Object, Function, Predicate)} where branches referring to an ancestor, as decided by the refers to
+     * predicate (ancestor, branch), are created as back-references (see {@link Node#reference()}) instead of being expanded.
+     */
+    public static <E> Node<E> lazy(E root, Function<? super E, List<E>> expand, Predicate<? super E> branch,
+            BiPredicate<? super E, ? super E> refersTo)
+    {
+        return new LazyNode<>(root, null, 0, new Expansion<E>(expand, branch, refersTo));
+    }
+
+    /**
+     * Sets the listener of a lazy tree, called with the children each time any of its branches materializes them (outside of
+     * any tree lock). Replaces the previous listener, if any.
+     * 
+     * @return false if the node is not part of a lazy tree.
+     */
+    public static boolean onExpansion(Node<?> node, Consumer<List<? extends Node<?>>> listener)
+    {
+        if (node instanceof LazyNode)
+        {
+            ((LazyNode<?>) node).expansion.listener = listener;
+            return true;
+        }
+        return false;
+    }
+
     static class ArborescenceBuilder<E> implements Node.Builder<E>
     {
         private E data;
         private ArborescenceBuilder<E> parent;
         private List<ArborescenceBuilder<E>> children;
         private int depth;
+        private int referenceLevels;
 
         ArborescenceBuilder(ArborescenceBuilder<E> parent, E data)
         {
@@ -82,6 +154,24 @@ public class Nodes
             return child;
         }
 
+        @Override
+        public Builder<E> addReference(E data, int levels)
+        {
+            ArborescenceBuilder<E> ancestor = this;
+            for (int i = 1; i < levels && ancestor != null; i++)
+            {
+                ancestor = ancestor.parent;
+            }
+            if (levels < 1 || ancestor == null)
+            {
+                throw new AlkemyException("Invalid reference. No ancestor %s levels above.", levels);
+            }
+
+            final ArborescenceBuilder<E> child = (ArborescenceBuilder<E>) addChild(data);
+            child.referenceLevels = levels;
+            return child;
+        }
+
         @Override
         public Node<E> build()
         {
@@ -90,7 +180,7 @@ public class Nodes
             {
                 node = node.parent;
             }
-            return calculateDepths(node).drainTo(new ArborescenceNode<>(), true);
+            return new ArborescenceNode<>(calculateDepths(node), null);
         }
 
         private ArborescenceBuilder<E> calculateDepths(ArborescenceBuilder<E> e)
@@ -118,28 +208,6 @@ public class Nodes
             }
             return e;
         }
-
-        // TODO: Probably bring this inside the calculateDepths.
-        // We need new IntRefs for each element in the for each and access them
-        // after every
-        // iteration.
-        private Node<E> drainTo(ArborescenceNode<E> parent, boolean isRoot)
-        {
-            parent.data = data;
-            parent.parent = isRoot ? null : parent;
-            if (children != null)
-            {
-                parent.children = children.stream()//
-                        .map(b -> b.drainTo(new ArborescenceNode<E>(), false)).collect(Collectors.toList());
-                parent.depth = depth;
-            }
-            else
-            {
-                parent.children = Collections.emptyList();
-                parent.depth = depth;
-            }
-            return parent;
-        }
     }
 
     static class IntRef
@@ -147,14 +215,20 @@ public class Nodes
         int i;
     }
 
+    /**
+     * An immutable node. Can be safely shared and traversed by many threads at once.
+     * <p>
+     * Traversal strategies are not part of the node, but of the {@link TraversalView} returned by {@link #preorder()},
+     * {@link #postorder()}, etc.
+     */
     static class ArborescenceNode<E> implements Node<E>
     {
-        private E data;
-        private Node<E> parent;
-        private List<Node<E>> children;
-        private int depth;
-        private TraverseStrategy traverseStrategy = PREORDER;
-        private Callback<E> callback;
+        private final E data;
+        private final Node<E> parent;
+        private final List<Node<E>> children;
+        private final int depth;
+        private final int referenceLevels;
+        private volatile ElementIndex<E> index;
 
         ArborescenceNode(E data, Node<E> parent, List<Node<E>> children, int depth)
         {
@@ -162,23 +236,24 @@ public class Nodes
             this.parent = parent;
             this.children = children;
             this.depth = depth;
+            this.referenceLevels = 0;
         }
 
-        ArborescenceNode()
+        ArborescenceNode(ArborescenceBuilder<E> builder, Node<E> parent)
         {
+            this.data = builder.data;
+            this.parent = parent;
+            this.depth = builder.depth;
+            this.referenceLevels = builder.referenceLevels;
+            this.children = builder.children == null ? Collections.emptyList() //
+                    : Collections.unmodifiableList(builder.children.stream()//
+                            .map(b -> new ArborescenceNode<E>(b, this)).collect(Collectors.toList()));
         }
 
         @Override
         public Iterator<E> iterator()
         {
-            if (traverseStrategy == PREORDER)
-            {
-                return callback != null ? new PreorderIteratorWithCallback<E>(this, callback) : new PreorderIterator<E>(this);
-            }
-            else
-            {
-                return callback != null ? new PostorderIteratorWithCallback<E>(this, callback) : new PostorderIterator<E>(this);
-            }
+            return new PreorderIterator<E>(this);
         }
 
         @Override
@@ -199,6 +274,12 @@ public class Nodes
             return children;
         }
 
+        @Override
+        public Node<E> reference()
+        {
+            return referenceLevels > 0 ? ancestor(this, referenceLevels) : null;
+        }
+
         @Override
         public boolean hasChildren()
         {
@@ -217,32 +298,367 @@ public class Nodes
             forEach(e -> c.add(e));
         }
 
+        @Override
+        public List<E> elementsOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().elementsOf(alkemyType);
+        }
+
+        @Override
+        public List<E> leavesOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().leavesOf(alkemyType);
+        }
+
+        @Override
+        public List<E> nodesOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().nodesOf(alkemyType);
+        }
+
+        private ElementIndex<E> index()
+        {
+            ElementIndex<E> i = index;
+            if (i == null)
+            {
+                i = index = ElementIndex.of(this); // idempotent, a concurrent race just builds it twice.
+            }
+            return i;
+        }
+
         @Override
         public Node<E> preorder()
         {
-            traverseStrategy = PREORDER;
-            return this;
+            return new TraversalView<E>(this, PREORDER, null);
         }
 
         @Override
         public Node<E> postorder()
         {
-            traverseStrategy = POSTORDER;
-            return this;
+            return new TraversalView<E>(this, POSTORDER, null);
         }
 
         @Override
         public Node<E> preorder(Callback<E> callback)
         {
-            this.callback = callback;
-            return preorder();
+            return new TraversalView<E>(this, PREORDER, callback);
         }
 
         @Override
         public Node<E> postorder(Callback<E> callback)
         {
+            return new TraversalView<E>(this, POSTORDER, callback);
+        }
+    }
+
+    /**
+     * A node whose children are materialized on demand. Can be safely shared and traversed by many threads at once.
+     * <p>
+     * {@link #branchDepth()} and {@link #elementsOf(Class)} materialize the whole branch.
+     */
+    static class LazyNode<E> implements Node<E>
+    {
+        private final E data;
+        private final Node<E> parent;
+        private final int referenceLevels;
+        private final Expansion<E> expansion;
+        private volatile List<Node<E>> children;
+        private volatile int depth = -1;
+        private volatile ElementIndex<E> index;
+
+        LazyNode(E data, Node<E> parent, int referenceLevels, Expansion<E> expansion)
+        {
+            this.data = data;
+            this.parent = parent;
+            this.referenceLevels = referenceLevels;
+            this.expansion = expansion;
+        }
+
+        @Override
+        public Iterator<E> iterator()
+        {
+            return new PreorderIterator<E>(this);
+        }
+
+        @Override
+        public Node<E> parent()
+        {
+            return parent;
+        }
+
+        @Override
+        public E data()
+        {
+            return data;
+        }
+
+        @Override
+        public List<Node<E>> children()
+        {
+            List<Node<E>> c = children;
+            if (c == null)
+            {
+                boolean expanded = false;
+                synchronized (this)
+                {
+                    c = children;
+                    if (c == null)
+                    {
+                        c = !isBranch() ? Collections.emptyList() //
+                                : Collections.unmodifiableList(expansion.expand.apply(data).stream() //
+                                        .map(d -> new LazyNode<E>(d, this, referenceLevels(d), expansion)) //
+                                        .collect(Collectors.toList()));
+                        children = c;
+                        expanded = !c.isEmpty();
+                    }
+                }
+                if (expanded)
+                {
+                    expansion.expanded(c);
+                }
+            }
+            return c;
+        }
+
+        private boolean isBranch()
+        {
+            return referenceLevels == 0 && expansion.branch.test(data);
+        }
+
+        private int referenceLevels(E child)
+        {
+            if (expansion.branch.test(child))
+            {
+                int levels = 1;
+                for (Node<E> ancestor = this; ancestor != null; ancestor = ancestor.parent(), levels++)
+                {
+                    if (expansion.refersTo.test(ancestor.data(), child))
+                    {
+                        return levels;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public Node<E> reference()
+        {
+            return referenceLevels > 0 ? ancestor(this, referenceLevels) : null;
+        }
+
+        @Override
+        public boolean hasChildren()
+        {
+            return isBranch() && !children().isEmpty();
+        }
+
+        @Override
+        public int branchDepth()
+        {
+            if (depth < 0)
+            {
+                depth = children().stream().mapToInt(c -> c.branchDepth() + 1).max().orElse(0);
+            }
+            return depth;
+        }
+
+        @Override
+        public void drainTo(Collection<? super E> c)
+        {
+            forEach(e -> c.add(e));
+        }
+
+        @Override
+        public List<E> elementsOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().elementsOf(alkemyType);
+        }
+
+        @Override
+        public List<E> leavesOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().leavesOf(alkemyType);
+        }
+
+        @Override
+        public List<E> nodesOf(Class<? extends Annotation> alkemyType)
+        {
+            return index().nodesOf(alkemyType);
+        }
+
+        private ElementIndex<E> index()
+        {
+            ElementIndex<E> i = index;
+            if (i == null)
+            {
+                i = index = ElementIndex.of(this); // idempotent, a concurrent race just builds it twice.
+            }
+            return i;
+        }
+
+        @Override
+        public Node<E> preorder()
+        {
+            return new TraversalView<E>(this, PREORDER, null);
+        }
+
+        @Override
+        public Node<E> postorder()
+        {
+            return new TraversalView<E>(this, POSTORDER, null);
+        }
+
+        @Override
+        public Node<E> preorder(Callback<E> callback)
+        {
+            return new TraversalView<E>(this, PREORDER, callback);
+        }
+
+        @Override
+        public Node<E> postorder(Callback<E> callback)
+        {
+            return new TraversalView<E>(this, POSTORDER, callback);
+        }
+    }
+
+    static class Expansion<E>
+    {
+        private final Function<? super E, List<E>> expand;
+        private final Predicate<? super E> branch;
+        private final BiPredicate<? super E, ? super E> refersTo;
+        private volatile Consumer<List<? extends Node<?>>> listener;
+
+        Expansion(Function<? super E, List<E>> expand, Predicate<? super E> branch, BiPredicate<? super E, ? super E> refersTo)
+        {
+            this.expand = expand;
+            this.branch = branch;
+            this.refersTo = refersTo;
+        }
+
+        void expanded(List<? extends Node<?>> children)
+        {
+            final Consumer<List<? extends Node<?>>> l = listener;
+            if (l != null)
+            {
+                l.accept(children);
+            }
+        }
+    }
+
+    /**
+     * A node which iterates its source node following a given strategy.
+     * <p>
+     * Views are cheap and immutable, the source node is neither copied nor modified.
+     */
+    static class TraversalView<E> implements Node<E>
+    {
+        private final Node<E> source;
+        private final TraverseStrategy traverseStrategy;
+        private final Callback<E> callback;
+
+        TraversalView(Node<E> source, TraverseStrategy traverseStrategy, Callback<E> callback)
+        {
+            this.source = source;
+            this.traverseStrategy = traverseStrategy;
             this.callback = callback;
-            return postorder();
+        }
+
+        @Override
+        public Iterator<E> iterator()
+        {
+            if (traverseStrategy == PREORDER)
+            {
+                return callback != null ? new PreorderIteratorWithCallback<E>(source, callback) : new PreorderIterator<E>(source);
+            }
+            else
+            {
+                return callback != null ? new PostorderIteratorWithCallback<E>(source, callback) : new PostorderIterator<E>(source);
+            }
+        }
+
+        @Override
+        public Node<E> parent()
+        {
+            return source.parent();
+        }
+
+        @Override
+        public E data()
+        {
+            return source.data();
+        }
+
+        @Override
+        public List<Node<E>> children()
+        {
+            return source.children();
+        }
+
+        @Override
+        public Node<E> reference()
+        {
+            return source.reference();
+        }
+
+        @Override
+        public boolean hasChildren()
+        {
+            return source.hasChildren();
+        }
+
+        @Override
+        public int branchDepth()
+        {
+            return source.branchDepth();
+        }
+
+        @Override
+        public void drainTo(Collection<? super E> c)
+        {
+            forEach(e -> c.add(e));
+        }
+
+        @Override
+        public List<E> elementsOf(Class<? extends Annotation> alkemyType)
+        {
+            return source.elementsOf(alkemyType);
+        }
+
+        @Override
+        public List<E> leavesOf(Class<? extends Annotation> alkemyType)
+        {
+            return source.leavesOf(alkemyType);
+        }
+
+        @Override
+        public List<E> nodesOf(Class<? extends Annotation> alkemyType)
+        {
+            return source.nodesOf(alkemyType);
+        }
+
+        @Override
+        public Node<E> preorder()
+        {
+            return new TraversalView<E>(source, PREORDER, null);
+        }
+
+        @Override
+        public Node<E> postorder()
+        {
+            return new TraversalView<E>(source, POSTORDER, null);
+        }
+
+        @Override
+        public Node<E> preorder(Callback<E> callback)
+        {
+            return new TraversalView<E>(source, PREORDER, callback);
+        }
+
+        @Override
+        public Node<E> postorder(Callback<E> callback)
+        {
+            return new TraversalView<E>(source, POSTORDER, callback);
         }
     }
 
@@ -274,6 +690,16 @@ public class Nodes
             return new TypedNode<R, E>(copy, type);
         }
 
+        /**
+         * As {@link #create(Class, Function)} caching the projected tree by type and projection key (see
+         * {@link Alkemy#parse(Class, Object, Predicate, Function)}).
+         */
+        public static <R, E extends AlkemyElement> TypedNode<R, E> create(Class<R> type, Object projectionKey,
+                Function<AlkemyElement, E> f)
+        {
+            return new TypedNode<R, E>(Alkemy.parse(type, projectionKey, p -> true, f), type);
+        }
+
         public Class<R> type()
         {
             return type;
@@ -24,6 +24,8 @@ package org.alkemy.util;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -58,6 +60,15 @@ public class Traversers
         return new PostorderIterableWithCallback<E>(node, callback);
     }
 
+    /**
+     * Pre-order traversal of the elements accepted by the filter. Rejected nodes are not descended, so their branches are
+     * neither visited nor, for lazy trees (see {@link Nodes#lazy}), materialized.
+     */
+    public static <E> Traversable<E> preorder(Node<E> node, Predicate<? super E> filter)
+    {
+        return () -> new PrunedPreorderIterator<E>(node, filter);
+    }
+
     public static interface Traversable<E> extends Iterable<E>
     {
         default Stream<E> stream()
@@ -195,6 +206,68 @@ public class Traversers
         }
     }
 
+    static class PrunedPreorderIterator<E> implements Iterator<E>
+    {
+        private final Deque<Iterator<Node<E>>> stack = new ArrayDeque<Iterator<Node<E>>>();
+        private final Predicate<? super E> filter;
+
+        private Node<E> next = null;
+        private Node<E> expand = null; // last returned, its children are requested on the next move only.
+
+        PrunedPreorderIterator(Node<E> node, Predicate<? super E> filter)
+        {
+            this.filter = filter;
+            this.next = filter.test(node.data()) ? node : null;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (expand != null)
+            {
+                if (expand.hasChildren())
+                {
+                    stack.push(expand.children().iterator());
+                }
+                expand = null;
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public E next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            expand = next;
+            next = null;
+            return expand.data();
+        }
+
+        void advance()
+        {
+            while (!stack.isEmpty())
+            {
+                final Iterator<Node<E>> children = stack.peek();
+                if (!children.hasNext())
+                {
+                    stack.pop();
+                    continue;
+                }
+
+                final Node<E> child = children.next();
+                if (filter.test(child.data()))
+                {
+                    next = child;
+                    return;
+                }
+            }
+        }
+    }
+
     static class PreorderIteratorWithCallback<E> implements Iterator<E>
     {
         private final Deque<Pair<Node<E>, Iterator<Node<E>>>> stack = new ArrayDeque<>();
@@ -21,13 +21,34 @@
  *******************************************************************************/
 package org.alkemy.util;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class Types
 {
+    // resolved component types, per declaring class and field name.
+    private static final ClassValue<ConcurrentMap<String, Optional<Class<?>>>> componentTypes = new ClassValue<ConcurrentMap<String, Optional<Class<?>>>>()
+    {
+        @Override
+        protected ConcurrentMap<String, Optional<Class<?>>> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private Types() {
     }
 
@@ -35,31 +56,172 @@ public class Types
      * <ul>
      * <li>If the type is an array. Equivalent to {@link Class#getComponentType()}
      * <li>If the type is a collection, returns the collection's defined generic type.
+     * <li>If the type is a map, returns the map's defined value type.
      * <li>Otherwise returns null.
      * </ul>
+     * Nested collections and maps are resolved to their innermost element type, i.e. {@code Foo} for
+     * {@code List<Map<String, Foo>>}. Wildcards and type variables are resolved to their upper bound, and type arguments bound
+     * by subtypes (i.e. {@code class Foos extends ArrayList<Foo>}) are resolved as well. Results are cached per field.
      */
     public static Class<?> getComponentType(Field f)
+    {
+        return componentTypes.get(f.getDeclaringClass()).computeIfAbsent(f.getName(), n -> Optional.ofNullable(resolveComponentType(f)))
+                .orElse(null);
+    }
+
+    /**
+     * True if the field is a collection or a map whose elements (values) are collections or maps themselves, i.e.
+     * {@code List<List<Foo>>}. Its component type is then the innermost element type, not the type of its elements.
+     */
+    public static boolean isNestedContainer(Field f)
+    {
+        final Type element = f.getType().isArray() ? null : containerElement(f.getGenericType());
+        final Class<?> elementClass = element != null ? rawType(element) : null;
+        return elementClass != null && isContainer(elementClass);
+    }
+
+    /**
+     * True if the type is a {@link Collection} or a {@link Map}.
+     */
+    public static boolean isContainer(Class<?> type)
+    {
+        return Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+    }
+
+    private static Class<?> resolveComponentType(Field f)
     {
         if (f.getType().isArray())
         {
             return f.getType().getComponentType();
         }
-        else if (Collection.class.isAssignableFrom(f.getType()))
+        return elementType(f.getGenericType());
+    }
+
+    /*
+     * The element type of a collection or the value type of a map, unwrapping nested containers.
+     */
+    private static Class<?> elementType(Type declared)
+    {
+        final Type element = containerElement(declared);
+        final Class<?> elementClass = element != null ? rawType(element) : null;
+        if (elementClass != null && isContainer(elementClass))
+        {
+            final Class<?> nested = elementType(element);
+            return nested != null ? nested : elementClass;
+        }
+        return elementClass;
+    }
+
+    /*
+     * The declared element type of a collection or value type of a map, or null if not a container or unknown.
+     */
+    private static Type containerElement(Type declared)
+    {
+        final Type type = upperBound(declared);
+        final Class<?> raw = rawType(type);
+        if (raw != null && Collection.class.isAssignableFrom(raw))
         {
-            final Type genericType = f.getGenericType();
-            if (genericType instanceof ParameterizedType)
+            return typeArgument(type, Collection.class, 0);
+        }
+        else if (raw != null && Map.class.isAssignableFrom(raw))
+        {
+            return typeArgument(type, Map.class, 1);
+        }
+        return null;
+    }
+
+    /*
+     * The actual type argument of the target type as seen from the type, or null if unknown.
+     */
+    private static Type typeArgument(Type type, Class<?> target, int index)
+    {
+        final Class<?> raw = rawType(type);
+        if (raw == null || !target.isAssignableFrom(raw))
+        {
+            return null;
+        }
+        else if (raw == target)
+        {
+            return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[index] : null;
+        }
+
+        for (Type supertype : supertypes(raw))
+        {
+            final Type argument = typeArgument(supertype, target, index);
+            if (argument != null)
             {
-                final Type[] genericTypes = ((ParameterizedType) genericType).getActualTypeArguments();
-                try
-                {
-                    return Class.forName(genericTypes[0].getTypeName());
-                }
-                catch (Exception e)
+                return substitute(argument, raw, type);
+            }
+        }
+        return null;
+    }
+
+    private static List<Type> supertypes(Class<?> type)
+    {
+        final List<Type> supertypes = new ArrayList<>();
+        if (type.getGenericSuperclass() != null)
+        {
+            supertypes.add(type.getGenericSuperclass());
+        }
+        Collections.addAll(supertypes, type.getGenericInterfaces());
+        return supertypes;
+    }
+
+    /*
+     * Replaces a type variable of the raw type by its actual argument in the type, if any.
+     */
+    private static Type substitute(Type argument, Class<?> raw, Type type)
+    {
+        if (argument instanceof TypeVariable && type instanceof ParameterizedType)
+        {
+            final TypeVariable<?>[] variables = raw.getTypeParameters();
+            for (int i = 0; i < variables.length; i++)
+            {
+                if (variables[i].equals(argument))
                 {
-                    return null;
+                    return ((ParameterizedType) type).getActualTypeArguments()[i];
                 }
             }
         }
+        return argument;
+    }
+
+    private static Type upperBound(Type type)
+    {
+        if (type instanceof WildcardType)
+        {
+            return upperBound(((WildcardType) type).getUpperBounds()[0]);
+        }
+        else if (type instanceof TypeVariable)
+        {
+            return upperBound(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        return type;
+    }
+
+    private static Class<?> rawType(Type type)
+    {
+        if (type instanceof Class)
+        {
+            return (Class<?>) type;
+        }
+        else if (type instanceof ParameterizedType)
+        {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        else if (type instanceof WildcardType)
+        {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        else if (type instanceof TypeVariable)
+        {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        else if (type instanceof GenericArrayType)
+        {
+            final Class<?> component = rawType(((GenericArrayType) type).getGenericComponentType());
+            return component != null ? Array.newInstance(component, 0).getClass() : null;
+        }
         return null;
     }
 }
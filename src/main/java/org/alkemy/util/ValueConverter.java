@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.Temporal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.alkemy.exception.TypeMismatch;
+
+import com.google.common.primitives.Primitives;
+
+/**
+ * Converts loosely typed values into a target type.
+ * <p>
+ * Conversions are precompiled as a matrix: each source type (boxed numbers, {@link CharSequence}, {@link Boolean},
+ * {@link Character}, enums, {@link Instant}, {@link LocalDate} and {@link Duration}) resolves once to a view of its values as
+ * long, double, boolean or text, and each target type resolves once to its converter, which combines the view of the source.
+ * Field accessors hold their own converter ({@link #create(Class)}), which pins the view of the first source type it
+ * converts, so converting values of the same type (the usual case) dispatches straight to it. Other source types resolve
+ * their view from a shared lookup, with no writes. Primitive targets are converted with {@link #toInt(Object)},
+ * {@link #toDouble(Object)}, ... without boxing.
+ * <p>
+ * Numbers are converted as in a cast. Booleans are 1 or 0, enums their ordinal, instants their epoch millis, local dates
+ * their epoch day and durations their millis. Texts are parsed, as booleans only "true", "false", "1" and "0" are accepted.
+ */
+public class ValueConverter
+{
+    private static final ClassValue<ValueConverter> converters = new ClassValue<ValueConverter>()
+    {
+        @Override
+        protected ValueConverter computeValue(Class<?> type)
+        {
+            return new ValueConverter(type, false);
+        }
+    };
+
+    private static final ClassValue<SourceView> views = new ClassValue<SourceView>()
+    {
+        @Override
+        protected SourceView computeValue(Class<?> type)
+        {
+            return SourceView.of(type);
+        }
+    };
+
+    private final Class<?> target;
+    private final Class<?> boxed;
+    private final Object[] constants;
+    private final Map<String, Object> constantsByName;
+    private final boolean pinning;
+    private Cached pinned; // written once (racy, but immutable)
+
+    private ValueConverter(Class<?> target, boolean pinning)
+    {
+        this.target = target;
+        this.boxed = Primitives.wrap(target);
+        this.constants = target.isEnum() ? target.getEnumConstants() : null;
+        this.constantsByName = new HashMap<>();
+        if (constants != null)
+        {
+            for (Object c : constants)
+            {
+                constantsByName.put(((Enum<?>) c).name(), c);
+            }
+        }
+        this.pinning = pinning;
+    }
+
+    /**
+     * Returns the converter into the target type, shared per target type. It doesn't cache the source type.
+     */
+    public static ValueConverter of(Class<?> target)
+    {
+        return converters.get(target);
+    }
+
+    /**
+     * Returns a new converter into the target type, pinning the view of the first source type it converts. Meant to be held
+     * by a single field accessor.
+     */
+    public static ValueConverter create(Class<?> target)
+    {
+        return new ValueConverter(target, true);
+    }
+
+    public Class<?> target()
+    {
+        return target;
+    }
+
+    /**
+     * Returns the value converted into the target type (boxed if primitive). Values already of the target type, and null, are
+     * returned as is.
+     * 
+     * @throws TypeMismatch
+     *             If the value can't be converted.
+     */
+    public Object convert(Object value) throws TypeMismatch
+    {
+        if (value == null || boxed.isInstance(value))
+        {
+            return value;
+        }
+        else if (boxed == Double.class) return toDouble(value);
+        else if (boxed == Float.class) return toFloat(value);
+        else if (boxed == Long.class) return toLong(value);
+        else if (boxed == Integer.class) return toInt(value);
+        else if (boxed == Short.class) return toShort(value);
+        else if (boxed == Character.class) return toChar(value);
+        else if (boxed == Byte.class) return toByte(value);
+        else if (boxed == Boolean.class) return toBoolean(value);
+        else if (target == String.class) return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+        else if (constants != null) return toEnum(value);
+        else if (Temporal.class.isAssignableFrom(target) || target == Duration.class) return toTime(value);
+        else
+            return value; // not convertible, left to the setter.
+    }
+
+    public double toDouble(Object value) throws TypeMismatch
+    {
+        return value instanceof Double ? (Double) value : doubleOf(value);
+    }
+
+    public float toFloat(Object value) throws TypeMismatch
+    {
+        return value instanceof Float ? (Float) value : (float) doubleOf(value);
+    }
+
+    public long toLong(Object value) throws TypeMismatch
+    {
+        return value instanceof Long ? (Long) value : longOf(value);
+    }
+
+    public int toInt(Object value) throws TypeMismatch
+    {
+        return value instanceof Integer ? (Integer) value : (int) longOf(value);
+    }
+
+    public short toShort(Object value) throws TypeMismatch
+    {
+        return value instanceof Short ? (Short) value : (short) longOf(value);
+    }
+
+    public char toChar(Object value) throws TypeMismatch
+    {
+        if (value instanceof Character)
+        {
+            return (Character) value;
+        }
+        else if (value instanceof CharSequence && ((CharSequence) value).length() == 1)
+        {
+            return ((CharSequence) value).charAt(0);
+        }
+        return (char) longOf(value);
+    }
+
+    public byte toByte(Object value) throws TypeMismatch
+    {
+        return value instanceof Byte ? (Byte) value : (byte) longOf(value);
+    }
+
+    public boolean toBoolean(Object value) throws TypeMismatch
+    {
+        return value instanceof Boolean ? (Boolean) value : booleanOf(value);
+    }
+
+    private Object toEnum(Object value)
+    {
+        if (value instanceof CharSequence)
+        {
+            final Object constant = constantsByName.get(value.toString());
+            if (constant == null)
+            {
+                throw mismatch(value, null);
+            }
+            return constant;
+        }
+        final long ordinal = longOf(value);
+        if (ordinal < 0 || ordinal >= constants.length)
+        {
+            throw mismatch(value, null);
+        }
+        return constants[(int) ordinal];
+    }
+
+    private Object toTime(Object value)
+    {
+        try
+        {
+            if (value instanceof CharSequence)
+            {
+                final CharSequence text = (CharSequence) value;
+                if (target == Instant.class) return Instant.parse(text);
+                else if (target == LocalDate.class) return LocalDate.parse(text);
+                else if (target == LocalDateTime.class) return LocalDateTime.parse(text);
+                else if (target == LocalTime.class) return LocalTime.parse(text);
+                else if (target == Duration.class) return Duration.parse(text);
+            }
+            else if (value instanceof Number)
+            {
+                final long n = ((Number) value).longValue();
+                if (target == Instant.class) return Instant.ofEpochMilli(n);
+                else if (target == LocalDate.class) return LocalDate.ofEpochDay(n);
+                else if (target == Duration.class) return Duration.ofMillis(n);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            throw mismatch(value, e);
+        }
+        return value; // not convertible, left to the setter.
+    }
+
+    private long longOf(Object value)
+    {
+        final SourceView view = view(value);
+        try
+        {
+            return view.toLong(value);
+        }
+        catch (RuntimeException e)
+        {
+            throw mismatch(value, e);
+        }
+    }
+
+    private double doubleOf(Object value)
+    {
+        final SourceView view = view(value);
+        try
+        {
+            return view.toDouble(value);
+        }
+        catch (RuntimeException e)
+        {
+            throw mismatch(value, e);
+        }
+    }
+
+    private boolean booleanOf(Object value)
+    {
+        final SourceView view = view(value);
+        try
+        {
+            return view.toBoolean(value);
+        }
+        catch (RuntimeException e)
+        {
+            throw mismatch(value, e);
+        }
+    }
+
+    private SourceView view(Object value)
+    {
+        if (value == null)
+        {
+            throw mismatch(null, null);
+        }
+
+        final Cached c = pinned;
+        final SourceView view;
+        if (c != null && c.type == value.getClass())
+        {
+            view = c.view;
+        }
+        else
+        {
+            view = views.get(value.getClass());
+            if (c == null && pinning)
+            {
+                pinned = new Cached(value.getClass(), view);
+            }
+        }
+        if (view == SourceView.UNSUPPORTED)
+        {
+            throw mismatch(value, null);
+        }
+        return view;
+    }
+
+    private TypeMismatch mismatch(Object value, Throwable cause)
+    {
+        return new TypeMismatch("Can't convert the value '%s' of type '%s' into type '%s'", cause, value, value != null ? value
+                .getClass().getName() : "null", target.getName());
+    }
+
+    static class Cached
+    {
+        final Class<?> type;
+        final SourceView view;
+
+        Cached(Class<?> type, SourceView view)
+        {
+            this.type = type;
+            this.view = view;
+        }
+    }
+
+    /*
+     * How the values of a source type are seen as a long, a double or a boolean.
+     */
+    static abstract class SourceView
+    {
+        static final SourceView UNSUPPORTED = new SourceView()
+        {
+            @Override
+            long toLong(Object value)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            double toDouble(Object value)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        static SourceView of(Class<?> type)
+        {
+            if (Number.class.isAssignableFrom(type)) return new NumberView();
+            else if (CharSequence.class.isAssignableFrom(type)) return new TextView();
+            else if (type == Boolean.class) return new BooleanView();
+            else if (type == Character.class) return new CharacterView();
+            else if (Enum.class.isAssignableFrom(type)) return new EnumView();
+            else if (type == Instant.class) return new EpochView(v -> ((Instant) v).toEpochMilli());
+            else if (type == LocalDate.class) return new EpochView(v -> ((LocalDate) v).toEpochDay());
+            else if (type == Duration.class) return new EpochView(v -> ((Duration) v).toMillis());
+            else
+                return UNSUPPORTED;
+        }
+
+        abstract long toLong(Object value);
+
+        abstract double toDouble(Object value);
+
+        boolean toBoolean(Object value)
+        {
+            return toLong(value) != 0;
+        }
+    }
+
+    static class NumberView extends SourceView
+    {
+        @Override
+        long toLong(Object value)
+        {
+            return ((Number) value).longValue();
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return ((Number) value).doubleValue();
+        }
+
+        @Override
+        boolean toBoolean(Object value)
+        {
+            return ((Number) value).doubleValue() != 0;
+        }
+    }
+
+    static class TextView extends SourceView
+    {
+        @Override
+        long toLong(Object value)
+        {
+            final String text = value.toString().trim();
+            try
+            {
+                return Long.parseLong(text);
+            }
+            catch (NumberFormatException e)
+            {
+                return (long) Double.parseDouble(text); // throws if not a number either.
+            }
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return Double.parseDouble(value.toString().trim());
+        }
+
+        @Override
+        boolean toBoolean(Object value)
+        {
+            final String text = value.toString().trim();
+            if ("true".equalsIgnoreCase(text) || "1".equals(text)) return true;
+            else if ("false".equalsIgnoreCase(text) || "0".equals(text)) return false;
+            else
+                throw new IllegalArgumentException(text);
+        }
+    }
+
+    static class BooleanView extends SourceView
+    {
+        @Override
+        long toLong(Object value)
+        {
+            return (Boolean) value ? 1 : 0;
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return (Boolean) value ? 1 : 0;
+        }
+    }
+
+    static class CharacterView extends SourceView
+    {
+        @Override
+        long toLong(Object value)
+        {
+            return (Character) value;
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return (Character) value;
+        }
+    }
+
+    static class EnumView extends SourceView
+    {
+        @Override
+        long toLong(Object value)
+        {
+            return ((Enum<?>) value).ordinal();
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return ((Enum<?>) value).ordinal();
+        }
+    }
+
+    static class EpochView extends SourceView
+    {
+        private final ToLongFunction<Object> epoch;
+
+        EpochView(ToLongFunction<Object> epoch)
+        {
+            this.epoch = epoch;
+        }
+
+        @Override
+        long toLong(Object value)
+        {
+            return epoch.applyAsLong(value);
+        }
+
+        @Override
+        double toDouble(Object value)
+        {
+            return epoch.applyAsLong(value);
+        }
+    }
+}
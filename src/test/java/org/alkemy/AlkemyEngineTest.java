@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.alkemy.parse.MethodInvoker;
+import org.alkemy.parse.NodeFactory;
+import org.alkemy.parse.ValueAccessor;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.AlkemyElementFactory;
+import org.alkemy.parse.impl.AnnotatedAlkemyElementFactory;
+import org.alkemy.parse.impl.AnnotatedMember;
+import org.alkemy.parse.impl.BarElement;
+import org.alkemy.util.Node;
+import org.junit.Test;
+
+public class AlkemyEngineTest
+{
+    @Test
+    public void enginesDoNotShareTheCache()
+    {
+        final AlkemyEngine a = AlkemyEngine.create();
+        final AlkemyEngine b = AlkemyEngine.builder().cacheSize(1024 * 1024).build();
+
+        a.parse(TestClass.class);
+        a.parse(TestClass.class);
+        b.parse(TestClass.class);
+
+        assertThat(a.cacheStats().hitCount(), is(1L));
+        assertThat(b.cacheStats().hitCount(), is(0L));
+        assertThat(b.cacheStats().maxWeight(), is(1024L * 1024));
+        assertThat(a.parse(TestClass.class), is(not(sameInstance(b.parse(TestClass.class)))));
+    }
+
+    @Test
+    public void cachingDisabled()
+    {
+        final AlkemyEngine engine = AlkemyEngine.builder().caching(false).build();
+
+        assertThat(engine.parse(TestClass.class), is(not(sameInstance(engine.parse(TestClass.class)))));
+        assertThat(engine.cacheStats().missCount(), is(0L));
+
+        engine.setCaching(true);
+        assertThat(engine.parse(TestClass.class), is(sameInstance(engine.parse(TestClass.class))));
+    }
+
+    @Test
+    public void customElementFactory()
+    {
+        final AtomicInteger leaves = new AtomicInteger();
+        final AlkemyElementFactory<AnnotatedMember> factory = AnnotatedAlkemyElementFactory.create();
+        final AlkemyEngine engine = AlkemyEngine.builder().elementFactory(new AlkemyElementFactory<AnnotatedMember>()
+        {
+            @Override
+            public AlkemyElement createLeaf(AnnotatedMember desc, ValueAccessor valueAccessor)
+            {
+                leaves.incrementAndGet();
+                return factory.createLeaf(desc, valueAccessor);
+            }
+
+            @Override
+            public AlkemyElement createNode(AnnotatedMember desc, NodeFactory valueConstructor, ValueAccessor valueAccessor,
+                    List<MethodInvoker> methodInvokers, Class<?> nodeType)
+            {
+                return factory.createNode(desc, valueConstructor, valueAccessor, methodInvokers, nodeType);
+            }
+        }).build();
+
+        engine.parse(TestClass.class);
+        engine.parse(TestClass.class);
+        assertThat(leaves.get(), is(5));
+    }
+
+    @Test
+    public void lazyParsing()
+    {
+        final AlkemyEngine eager = AlkemyEngine.create();
+        final AlkemyEngine lazy = AlkemyEngine.builder().lazyParsing(true).build();
+
+        final List<String> expected = eager.parse(TestTraverse.class).stream().map(e -> e.valueName()).collect(Collectors.toList());
+        assertThat(lazy.parse(TestTraverse.class).stream().map(e -> e.valueName()).collect(Collectors.toList()), is(expected));
+        assertThat(lazy.parse(TestTraverse.class).branchDepth(), is(eager.parse(TestTraverse.class).branchDepth()));
+    }
+
+    @Test
+    public void projectionsAreCached()
+    {
+        final AlkemyEngine engine = AlkemyEngine.create();
+        final Node<BarElement> first = engine.parse(TestTraverse.class, BarElement.class, e -> true, e -> new BarElement(e));
+        final Node<BarElement> second = engine.parse(TestTraverse.class, BarElement.class, e -> true, e -> new BarElement(e));
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.stream().count(), is(engine.parse(TestTraverse.class).stream().count()));
+        assertThat(engine.parse(TestTraverse.class, "other", e -> true, e -> new BarElement(e)), is(not(sameInstance(first))));
+    }
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+
+import org.alkemy.TestTraverse.NestedA;
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.AlkemyLeafLexer;
+import org.alkemy.parse.impl.AnnotatedAlkemyElementFactory;
+import org.alkemy.parse.impl.BarElement;
+import org.alkemy.parse.impl.TestInheritance.DerivedA;
+import org.alkemy.parse.impl.TestInheritance.DerivedB;
+import org.alkemy.parse.impl.TypeParser;
+import org.alkemy.util.Node;
+import org.alkemy.util.Nodes;
+import org.junit.Test;
+
+public class NodeCacheTest
+{
+    private static NodeCache newCache(long maxSize)
+    {
+        return new NodeCache(TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create())), maxSize);
+    }
+
+    @Test
+    public void stats()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        cache.get(TestClass.class);
+        cache.get(TestClass.class);
+        cache.get(TestTraverse.class);
+
+        final NodeCacheStats stats = cache.stats();
+        assertThat(stats.hitCount(), is(1L));
+        assertThat(stats.missCount(), is(2L));
+        assertThat(stats.loadCount(), is(2L));
+        assertThat(stats.size(), is(2L));
+        assertThat(stats.weight(), greaterThan(0L));
+    }
+
+    @Test
+    public void weightGrowsWithTheTree()
+    {
+        final NodeCache small = newCache(Long.MAX_VALUE);
+        small.get(TestClass.class);
+
+        final NodeCache big = newCache(Long.MAX_VALUE);
+        big.get(TestTraverse.class);
+
+        assertThat(big.stats().weight(), greaterThan(small.stats().weight()));
+    }
+
+    @Test
+    public void sharedFragmentsAreWeighedOnce()
+    {
+        final NodeCache alone = newCache(Long.MAX_VALUE);
+        alone.get(NestedA.class);
+
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        cache.get(TestTraverse.class);
+        final long weight = cache.stats().weight();
+        cache.get(NestedA.class); // its fragments are already charged to the traverse tree.
+
+        assertThat(cache.stats().weight() - weight, is(lessThan(alone.stats().weight() / 2)));
+
+        cache.invalidateAll();
+        assertThat(cache.stats().weight(), is(0L));
+    }
+
+    @Test
+    public void unusedFragmentsAreReleased()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> a = cache.get(DerivedA.class);
+        final Node<AlkemyElement> b = cache.get(DerivedB.class);
+        assertThat(b.children().get(0).data(), is(sameInstance(a.children().get(0).data()))); // inherited
+
+        cache.invalidateAll();
+        assertThat(cache.get(DerivedB.class).children().get(0).data(), is(not(sameInstance(a.children().get(0).data()))));
+    }
+
+    @Test
+    public void resizeKeepsWarmEntries()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> before = cache.get(TestTraverse.class);
+        final long weight = cache.stats().weight();
+
+        cache.resize(Integer.MAX_VALUE);
+        assertThat(cache.get(TestTraverse.class), is(sameInstance(before)));
+        assertThat(cache.stats().weight(), is(weight));
+        assertThat(cache.stats().maxWeight(), is((long) Integer.MAX_VALUE));
+        assertThat(cache.stats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void resizeEvictsExceedingEntries()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        cache.get(TestTraverse.class);
+        cache.resize(1);
+
+        assertThat(cache.stats().size(), is(0L));
+        assertThat(cache.stats().weight(), is(0L));
+        assertThat(cache.stats().evictionCount(), is(1L));
+
+        cache.resize(Long.MAX_VALUE);
+        cache.get(TestTraverse.class);
+        assertThat(cache.stats().missCount(), is(2L));
+    }
+
+    @Test
+    public void invalidateAllReparses()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> before = cache.get(TestClass.class);
+        cache.invalidateAll();
+
+        assertThat(cache.get(TestClass.class), is(not(sameInstance(before))));
+        assertThat(cache.stats().evictionCount(), is(0L));
+        assertThat(cache.stats().missCount(), is(2L));
+    }
+
+    @Test
+    public void lazyTreesAreReweighedOnExpansion()
+    {
+        final NodeCache cache = new NodeCache(TypeParser.lazy(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create())),
+                Long.MAX_VALUE);
+        final Node<AlkemyElement> root = cache.get(TestTraverse.class);
+        final long weight = cache.stats().weight();
+
+        root.drainTo(new ArrayList<>());
+        assertThat(cache.stats().weight(), is(weight)); // charged on the next lookup.
+        assertThat(cache.get(TestTraverse.class), is(sameInstance(root)));
+        assertThat(cache.stats().weight(), greaterThan(weight));
+        assertThat(cache.stats().size(), is(1L));
+
+        final NodeCache eager = newCache(Long.MAX_VALUE);
+        eager.get(TestTraverse.class);
+        assertThat(cache.stats().weight(), greaterThanOrEqualTo(eager.stats().weight())); // fully expanded.
+    }
+
+    @Test
+    public void keyedEntriesShareTheBudget()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> node = cache.get(TestTraverse.class);
+        final Node<AlkemyElement> keyed = cache.get(TestTraverse.class, "key", t -> Nodes.arborescence(node.data()).build());
+
+        assertThat(cache.get(TestTraverse.class, "key", t -> null), is(sameInstance(keyed)));
+        assertThat(cache.get(TestTraverse.class), is(sameInstance(node)));
+        assertThat(cache.stats().size(), is(2L));
+        assertThat(cache.stats().hitCount(), is(2L));
+
+        cache.resize(1);
+        assertThat(cache.stats().size(), is(0L));
+        assertThat(cache.get(TestTraverse.class, "key", t -> Nodes.arborescence(node.data()).build()), is(not(sameInstance(keyed))));
+    }
+
+    @Test
+    public void projectionsWeighOnlyWhatTheyOwn()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> node = cache.get(TestTraverse.class);
+        final long weight = cache.stats().weight();
+
+        cache.get(TestTraverse.class, "copy",
+                t -> Nodes.copy(node, Nodes.arborescence(new BarElement(node.data())), e -> true, BarElement::new).build());
+        // the copies share their accessors, node factories and invokers with the parsed elements.
+        assertThat(cache.stats().weight() - weight, is(lessThan(weight / 2)));
+    }
+
+    @Test
+    public void evictedKeysAreDropped()
+    {
+        final NodeCache cache = newCache(Long.MAX_VALUE);
+        final Node<AlkemyElement> node = cache.get(TestTraverse.class);
+        for (int i = 0; i < 10; i++)
+        {
+            cache.get(TestTraverse.class, i, t -> Nodes.arborescence(node.data()).build());
+        }
+        assertThat(cache.keyCount(TestTraverse.class), is(10));
+
+        cache.resize(1);
+        assertThat(cache.keyCount(TestTraverse.class), is(0));
+
+        try
+        {
+            cache.get(TestTraverse.class, "failing", t ->
+            {
+                throw new IllegalStateException();
+            });
+        }
+        catch (AlkemyException e)
+        {
+            // expected.
+        }
+        assertThat(cache.keyCount(TestTraverse.class), is(0));
+    }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy;
+
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alkemy.TestTraverse.NestedA;
+import org.alkemy.TestTraverse.NestedD;
+import org.alkemy.exception.InvalidOrder;
+import org.alkemy.annotations.Order;
+import org.alkemy.parse.MethodInvoker;
+import org.alkemy.parse.NodeFactory;
+import org.alkemy.parse.ValueAccessor;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.AlkemyElementFactory;
+import org.alkemy.parse.impl.AnnotatedAlkemyElementFactory;
+import org.alkemy.parse.impl.AnnotatedMember;
+import org.junit.Test;
+
+public class PreloadTest
+{
+    @Test
+    public void preload()
+    {
+        final PreloadResult result = Alkemy.preload(Arrays.asList(TestClass.class, TestTraverse.class, TestClass.class));
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.loaded().size(), is(2));
+        assertThat(result.loaded(), hasItems(TestClass.class, TestTraverse.class));
+    }
+
+    @Test
+    public void sharedNestedTypesAreParsedOnce()
+    {
+        final AtomicInteger parses = new AtomicInteger();
+        final AlkemyElementFactory<AnnotatedMember> factory = AnnotatedAlkemyElementFactory.create();
+        final AlkemyEngine engine = AlkemyEngine.builder().elementFactory(new AlkemyElementFactory<AnnotatedMember>()
+        {
+            @Override
+            public AlkemyElement createLeaf(AnnotatedMember desc, ValueAccessor valueAccessor)
+            {
+                if ("d1".equals(desc.getName())) // NestedD
+                {
+                    parses.incrementAndGet();
+                }
+                return factory.createLeaf(desc, valueAccessor);
+            }
+
+            @Override
+            public AlkemyElement createNode(AnnotatedMember desc, NodeFactory valueConstructor, ValueAccessor valueAccessor,
+                    List<MethodInvoker> methodInvokers, Class<?> nodeType)
+            {
+                return factory.createNode(desc, valueConstructor, valueAccessor, methodInvokers, nodeType);
+            }
+        }).build();
+
+        final PreloadResult result = engine.preload(Arrays.asList(TestTraverse.class, NestedA.class, HasNestedD.class));
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(parses.get(), is(1));
+    }
+
+    @Test
+    public void failuresDoNotAbortTheBatch()
+    {
+        final PreloadResult result = Alkemy.preload(Arrays.asList(TestClass.class, InvalidlyOrdered.class, TestTraverse.class));
+
+        assertThat(result.loaded(), hasItems(TestClass.class, TestTraverse.class));
+        assertThat(result.failures().size(), is(1));
+        assertThat(result.failures().get(InvalidlyOrdered.class).getCause() instanceof InvalidOrder, is(true));
+    }
+
+    @Test
+    public void preloadPackage()
+    {
+        final PreloadResult result = Alkemy.preloadPackage("org.alkemy.parse.impl");
+        assertThat(result.loaded(), hasItems(org.alkemy.parse.impl.TestNode.class, org.alkemy.parse.impl.TestOrdered.class));
+    }
+
+    @Test
+    public void preloadIndexed()
+    {
+        final PreloadResult result = Alkemy.preloadIndexed();
+        assertThat(result.loaded(), hasItems(TestClass.class, TestTraverse.class, TestTraverse.NestedA.class));
+        assertThat(result.failures().keySet(), hasItems(InvalidlyOrdered.class));
+    }
+
+    static class HasNestedD
+    {
+        NestedD d;
+    }
+
+    @Order({ "foo", "alien" })
+    static class InvalidlyOrdered
+    {
+        @Foo
+        int foo;
+    }
+}
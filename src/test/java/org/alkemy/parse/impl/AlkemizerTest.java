@@ -48,6 +48,7 @@ import org.alkemy.TestAlkemyAccessor;
 import org.alkemy.annotations.Order;
 import org.alkemy.exception.AlkemyException;
 import org.alkemy.instr.ConstructorWriter;
+import org.alkemy.parse.ArrayArgumentSource;
 import org.alkemy.parse.AutoCastValueAccessor;
 import org.alkemy.parse.NodeFactory;
 import org.alkemy.parse.ValueAccessor;
@@ -94,6 +95,31 @@ public class AlkemizerTest
         ctor.newInstance(1f, "a", 1);
     }
 
+    @Test
+    public void createSourcePreserveOrder() throws IllegalAccessException, SecurityException
+    {
+        final NodeFactory ctor = MethodReferenceFactory.createReferencedNodeFactory(new SelfAccessor(FollowsOrder.class));
+        final FollowsOrder instance = (FollowsOrder) ctor.newInstance(ArrayArgumentSource.create(new long[] { 1 }, new double[] {
+                1.5 }, new Object[] { "a" }));
+
+        assertThat(instance.a, is("a"));
+        assertThat(instance.b, is(1));
+        assertThat(instance.c, is(1.5f));
+    }
+
+    @Test
+    public void createSourceWithEnums() throws IllegalAccessException, SecurityException
+    {
+        final NodeFactory ctor = MethodReferenceFactory.createReferencedNodeFactory(new SelfAccessor(TestAlkemizer.class));
+        final TestAlkemizer instance = (TestAlkemizer) ctor.newInstance(ArrayArgumentSource.create(new long[] { 3 }, new double[] {
+                2 }, new Object[] { "bar", "ipsum" }));
+
+        assertThat(instance.foo, is(3));
+        assertThat(instance.bar, is("bar"));
+        assertThat(instance.ipsum, is(Lorem.ipsum));
+        assertThat(instance.dolor, is(2f));
+    }
+
     @Test
     public void createArgsInDeclarationOrder() throws IllegalAccessException, SecurityException
     {
@@ -188,6 +214,59 @@ public class AlkemizerTest
         reflectAccessor.set(d, new TestAlkemizer());
     }
 
+    @Test
+    public void testAccessorBundle() throws NoSuchFieldException, SecurityException, IllegalAccessException, NoSuchMethodException
+    {
+        final LambdaReference foo = (LambdaReference) MethodReferenceFactory.createReferencedValueAccessor(clazz.getDeclaredField("foo"));
+        final LambdaReference bar = (LambdaReference) MethodReferenceFactory.createReferencedValueAccessor(clazz.getDeclaredField("bar"));
+        final LambdaReference ipsum = (LambdaReference) MethodReferenceFactory.createReferencedValueAccessor(clazz.getDeclaredField("ipsum"));
+        assertTrue(foo.bundle == bar.bundle && bar.bundle == ipsum.bundle);
+
+        final TestAlkemizer ta = new TestAlkemizer();
+        foo.set(2, ta);
+        bar.set((Object) "lorem", ta);
+        ipsum.set("ipsum", ta);
+
+        assertThat(foo.getInt(ta), is(2));
+        assertThat(foo.get(ta), is(2));
+        assertThat(bar.getString(ta), is("lorem"));
+        assertThat(ipsum.get(ta), is(Lorem.ipsum));
+        assertThat(ipsum.getString(ta), is("ipsum"));
+    }
+
+    @Test
+    public void testRowReader()
+    {
+        final RowReader reader = RowReader.create(TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create())).parse(clazz));
+
+        final TestAlkemizer ta = new TestAlkemizer();
+        ta.ipsum = Lorem.ipsum;
+        final long[] longs = new long[reader.longs()];
+        final double[] doubles = new double[reader.doubles()];
+        final Object[] objects = new Object[reader.objects()];
+        reader.read(ta, longs, doubles, objects);
+
+        assertThat(longs[0], is(-1l));
+        assertThat(objects[0], is("baz"));
+        assertThat(objects[1], is(Lorem.ipsum));
+    }
+
+    @Test
+    public void testAtomicAccessModes() throws NoSuchFieldException
+    {
+        // instrumented type, unsafe access modes in java 8.
+        final AtomicFieldAccessor foo = AtomicFieldAccessor.create(clazz.getDeclaredField("foo"));
+        final AtomicFieldAccessor dolor = AtomicFieldAccessor.create(clazz.getDeclaredField("dolor"));
+        final TestAlkemizer ta = new TestAlkemizer();
+
+        assertThat(foo.getAndAdd(2, ta), is((Object) (-1)));
+        assertThat(foo.compareAndSet(1, 5, ta), is(true));
+        assertThat(ta.foo, is(5));
+        dolor.setRelease(0.5f, ta);
+        assertThat(dolor.getAndSet(1f, ta), is((Object) 0.5f));
+        assertThat(dolor.getVolatile(ta), is((Object) 1f));
+    }
+
     @Test
     public void testEnums() throws IllegalAccessException, SecurityException, NoSuchFieldException, AlkemyException, NoSuchMethodException
     {
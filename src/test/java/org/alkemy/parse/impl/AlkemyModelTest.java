@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.alkemy.TestClass;
+import org.alkemy.parse.ArrayArgumentSource;
+import org.alkemy.parse.NodeFactory;
+import org.alkemy.parse.ValueAccessor;
+import org.alkemy.parse.impl.TestCreateInstanceParamPreserveOrder.FollowsOrder;
+import org.junit.Test;
+
+public class AlkemyModelTest
+{
+    @Test
+    public void generatedModels()
+    {
+        assertThat(MethodReferenceFactory.modelOf(TestClass.class), is(notNullValue()));
+        assertThat(MethodReferenceFactory.modelOf(FollowsOrder.class), is(notNullValue()));
+        assertThat(MethodReferenceFactory.modelOf(TestMultiType.class), is(nullValue())); // private fields
+    }
+
+    @Test
+    public void modelAccessors() throws NoSuchFieldException
+    {
+        final ValueAccessor n1 = AccessorFactory.createValueAccessor(TestClass.class.getDeclaredField("n1"));
+        assertThat(((LambdaReference) n1).bundle, is(instanceOf(AlkemyModel.class)));
+
+        final TestClass tc = new TestClass();
+        n1.set(7, tc);
+        assertThat(n1.getInt(tc), is(7));
+        n1.set((Object) 8d, tc);
+        assertThat(n1.get(tc), is(8));
+    }
+
+    @Test
+    public void modelNodeFactory()
+    {
+        final NodeFactory factory = AccessorFactory.createNodeFactory(AccessorFactory.createSelfAccessor(FollowsOrder.class));
+        assertThat(factory, is(instanceOf(ModelNodeFactory.class)));
+
+        final FollowsOrder instance = (FollowsOrder) factory.newInstance(1f, "a", 2);
+        assertThat(instance.a, is("a"));
+        assertThat(instance.b, is(2));
+        assertThat(instance.c, is(1f));
+    }
+
+    @Test
+    public void modelSourceFactory()
+    {
+        final NodeFactory factory = AccessorFactory.createNodeFactory(AccessorFactory.createSelfAccessor(FollowsOrder.class));
+        final ArrayArgumentSource source = ArrayArgumentSource.create(new long[] { 2 }, new double[] { 1 }, new Object[] { "a" });
+
+        final FollowsOrder instance = (FollowsOrder) factory.newInstance(source);
+        assertThat(instance.a, is("a"));
+        assertThat(instance.b, is(2));
+        assertThat(instance.c, is(1f));
+        assertThat(((FollowsOrder) factory.newInstance(source.reset())).b, is(2));
+    }
+
+    @Test
+    public void reflectedSourceFactory()
+    {
+        final NodeFactory factory = new ReflectedNodeFactory(AccessorFactory.createSelfAccessor(FollowsOrder.class));
+        final ArrayArgumentSource source = ArrayArgumentSource.create(new long[] { 2 }, new double[] { 1 }, new Object[] { "a" });
+
+        final FollowsOrder instance = (FollowsOrder) factory.newInstance(source);
+        assertThat(instance.a, is("a"));
+        assertThat(instance.b, is(2));
+        assertThat(instance.c, is(1f));
+    }
+
+    @Test
+    public void reflectedSourceFactoryWithoutModel()
+    {
+        final NodeFactory factory = AccessorFactory.createNodeFactory(AccessorFactory.createSelfAccessor(TestMultiType.class));
+        assertThat(factory, is(instanceOf(ReflectedNodeFactory.class)));
+
+        final TestMultiType instance = (TestMultiType) factory.newInstance(ArrayArgumentSource.create(new long[] { 3 },
+                new double[0], new Object[] { 4 }));
+        assertThat(instance.getFoo(), is(3));
+    }
+}
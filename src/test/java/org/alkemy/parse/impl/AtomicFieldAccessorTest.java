@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.AlkemyParser;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class AtomicFieldAccessorTest
+{
+    private final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+
+    @Test
+    public void varHandleAccessModes() throws Exception
+    {
+        Assume.assumeTrue("VarHandles require Java 9+", AtomicFieldAccessor.hasVarHandles());
+        accessModes(AtomicFieldAccessor::createVarHandleAccessor);
+    }
+
+    @Test
+    public void unsafeAccessModes() throws Exception
+    {
+        Assume.assumeTrue("sun.misc.Unsafe ordered puts are not available", AtomicFieldAccessor.hasUnsafeHandles());
+        accessModes(AtomicFieldAccessor::createUnsafeAccessor);
+    }
+
+    @Test(expected = AlkemyException.class)
+    public void unsupportedAccessMode() throws NoSuchFieldException
+    {
+        AtomicFieldAccessor.create(field("s")).getAndAdd(1, new TestFieldAccess<>());
+    }
+
+    @Test
+    public void elementAccessModes() throws InterruptedException
+    {
+        final AlkemyElement i = parser.parse(TestFieldAccess.class).children().stream() //
+                .filter(c -> c.data().desc().getName().equals("i")).findFirst().get().data();
+
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++)
+        {
+            executor.execute(() ->
+            {
+                for (int n = 0; n < 10000; n++)
+                {
+                    i.getAndAdd(1, tfa);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertThat(i.getVolatile(tfa), is((Object) 40000));
+        assertThat(i.compareAndSet("40000", 0, tfa), is(true));
+        assertThat(tfa.i, is(0));
+    }
+
+    private static void accessModes(Function<Field, AtomicFieldAccessor> factory) throws NoSuchFieldException
+    {
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+
+        final AtomicFieldAccessor i = factory.apply(field("i"));
+        i.setRelease(3, tfa);
+        assertThat(i.getVolatile(tfa), is((Object) 3));
+        assertThat(i.compareAndSet(2, 5, tfa), is(false));
+        assertThat(i.compareAndSet(3, 5, tfa), is(true));
+        assertThat(i.getAndAdd(2, tfa), is((Object) 5));
+        assertThat(i.getAndSet(1, tfa), is((Object) 7));
+        assertThat(tfa.i, is(1));
+
+        final AtomicFieldAccessor l = factory.apply(field("l"));
+        assertThat(l.getAndAdd(4, tfa), is((Object) 0l));
+        assertThat(l.getVolatile(tfa), is((Object) 4l));
+
+        final AtomicFieldAccessor d = factory.apply(field("d"));
+        d.setRelease(1.5d, tfa);
+        assertThat(d.compareAndSet(1.5d, 2.5d, tfa), is(true));
+        assertThat(d.getAndSet(3d, tfa), is((Object) 2.5d));
+        assertThat(tfa.d, is(3d));
+
+        final AtomicFieldAccessor unit = factory.apply(field("unit"));
+        assertThat(unit.compareAndSet(null, "SECONDS", tfa), is(true));
+        assertThat(unit.getAndSet(TimeUnit.DAYS, tfa), is((Object) TimeUnit.SECONDS));
+
+        final AtomicFieldAccessor hidden = factory.apply(field("hidden"));
+        assertThat(hidden.getAndAdd(1, tfa), is((Object) 0));
+        assertThat(hidden.getVolatile(tfa), is((Object) 1));
+
+        final AtomicFieldAccessor si = factory.apply(field("si"));
+        si.setRelease(0, null);
+        assertThat(si.getAndAdd(2, null), is((Object) 0));
+        assertThat(TestFieldAccess.si, is(2));
+    }
+
+    private static Field field(String name) throws NoSuchFieldException
+    {
+        return TestFieldAccess.class.getDeclaredField(name);
+    }
+}
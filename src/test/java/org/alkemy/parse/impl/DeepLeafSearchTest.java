@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.alkemy.Foo;
+import org.alkemy.TestTraverse;
+import org.junit.Test;
+
+public class DeepLeafSearchTest
+{
+    @Test
+    public void testDeepLeaves()
+    {
+        assertThat(DeepLeafSearch.hasLeaves(TestDeepLeaves.class), is(true));
+        assertThat(DeepLeafSearch.hasLeaves(TestDeepLeaves.Nested4.class), is(true));
+        assertThat(DeepLeafSearch.hasLeaves(TestTraverse.class), is(true));
+    }
+
+    @Test
+    public void testNoLeaves()
+    {
+        assertThat(DeepLeafSearch.hasLeaves(String.class), is(false));
+        assertThat(DeepLeafSearch.hasLeaves(int.class), is(false));
+        assertThat(DeepLeafSearch.hasLeaves(DeepLeafSearchTest.class), is(false));
+    }
+
+    @Test
+    public void testCycles()
+    {
+        assertThat(DeepLeafSearch.hasLeaves(Category.class), is(false));
+        assertThat(DeepLeafSearch.hasLeaves(Owner.class), is(true));
+        assertThat(DeepLeafSearch.hasLeaves(Pet.class), is(true));
+    }
+
+    static class Category
+    {
+        Category parent;
+        String name;
+    }
+
+    static class Owner
+    {
+        Pet pet;
+    }
+
+    static class Pet
+    {
+        Owner owner;
+        Tag tag;
+    }
+
+    static class Tag
+    {
+        @Foo
+        int id;
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alkemy.exception.TypeMismatch;
+import org.alkemy.parse.ValueAccessor;
+import org.junit.Test;
+
+public class FieldAccessBundleTest
+{
+    @Test
+    public void generatedAccessors() throws NoSuchFieldException
+    {
+        assertThat(MethodReferenceFactory.modelOf(TestFieldAccess.class), is(nullValue()));
+
+        final ValueAccessor i = accessor("i");
+        assertThat(((LambdaReference) i).bundle, is(not(instanceOf(AlkemyModel.class))));
+
+        final TestFieldAccess<String> tfa = new TestFieldAccess<>();
+        i.set(7, tfa);
+        assertThat(tfa.i, is(7));
+        assertThat(i.getInt(tfa), is(7));
+        i.set((Object) 8d, tfa);
+        assertThat(i.get(tfa), is(8));
+
+        accessor("l").set(3l, tfa);
+        assertThat(accessor("l").getLong(tfa), is(3l));
+        accessor("d").set(1.5d, tfa);
+        assertThat(accessor("d").getDouble(tfa), is(1.5d));
+        accessor("s").set("foo", tfa);
+        assertThat(accessor("s").get(tfa), is("foo"));
+        accessor("t").set("bar", tfa);
+        assertThat(tfa.t, is("bar"));
+    }
+
+    @Test
+    public void generatedEnumAndStaticAccessors() throws NoSuchFieldException
+    {
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+        final StringReference unit = (StringReference) accessor("unit");
+        unit.set("SECONDS", tfa);
+        assertThat(tfa.unit, is(TimeUnit.SECONDS));
+        assertThat(unit.getString(tfa), is("SECONDS"));
+
+        accessor("si").set(5, null);
+        assertThat(TestFieldAccess.si, is(5));
+    }
+
+    @Test
+    public void inaccessibleFieldsAreReflected() throws NoSuchFieldException
+    {
+        final ValueAccessor hidden = accessor("hidden");
+        assertThat(hidden, is(instanceOf(ReflectedIntReference.class)));
+        assertThat(accessor("fixed"), is(instanceOf(ReflectedIntReference.class)));
+
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+        hidden.set(3, tfa);
+        assertThat(hidden.getInt(tfa), is(3));
+        hidden.set((Object) 4.2d, tfa);
+        assertThat(hidden.get(tfa), is(4));
+    }
+
+    @Test
+    public void convertedValues() throws NoSuchFieldException
+    {
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+        accessor("i").set((Object) "12", tfa);
+        assertThat(tfa.i, is(12));
+        accessor("hidden").set((Object) true, tfa);
+        assertThat(accessor("hidden").getInt(tfa), is(1));
+        accessor("unit").set((Object) 1, tfa);
+        assertThat(tfa.unit, is(TimeUnit.MICROSECONDS));
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void reflectedTypeMismatch() throws NoSuchFieldException
+    {
+        accessor("hidden").set((Object) "foo", new TestFieldAccess<>());
+    }
+
+    private static ValueAccessor accessor(String name) throws NoSuchFieldException
+    {
+        return AccessorFactory.createValueAccessor(TestFieldAccess.class.getDeclaredField(name));
+    }
+}
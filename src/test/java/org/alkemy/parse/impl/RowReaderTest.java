@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.alkemy.parse.AlkemyParser;
+import org.alkemy.parse.impl.RowReader.ElementRowReader;
+import org.alkemy.parse.impl.TestAlkemizer.Lorem;
+import org.junit.Test;
+
+public class RowReaderTest
+{
+    private final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+
+    @Test
+    public void generatedReader()
+    {
+        final RowReader reader = RowReader.create(parser.parse(TestAlkemizer.class));
+        assertThat(reader, is(not(instanceOf(ElementRowReader.class))));
+        assertThat(RowReader.create(parser.parse(TestAlkemizer.class)), is(reader));
+
+        final TestAlkemizer ta = new TestAlkemizer();
+        ta.ipsum = Lorem.ipsum;
+        ta.dolor = 1.5f;
+
+        final long[] longs = new long[reader.longs()];
+        final double[] doubles = new double[reader.doubles()];
+        final Object[] objects = new Object[reader.objects()];
+        reader.read(ta, longs, doubles, objects);
+
+        assertThat(longs[0], is(-1l));
+        assertThat(doubles[0], is(1.5d));
+        assertThat(objects, arrayContaining((Object) "baz", Lorem.ipsum));
+    }
+
+    @Test
+    public void generatedBinaryReader()
+    {
+        final RowReader reader = RowReader.create(parser.parse(TestAlkemizer.class));
+        assertThat(reader.isBinary(), is(true));
+
+        final TestAlkemizer ta = new TestAlkemizer();
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        reader.read(ta, buffer);
+        buffer.flip();
+
+        assertThat(buffer.getInt(), is(-1));
+        assertThat(buffer.getInt(), is(3));
+        assertThat(buffer.getChar(), is('b'));
+        assertThat(buffer.getChar(), is('a'));
+        assertThat(buffer.getChar(), is('z'));
+        assertThat(buffer.getInt(), is(-1)); // null enum
+        assertThat(buffer.getFloat(), is(0f));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    public void elementReader()
+    {
+        // private fields can't be read from generated code.
+        final RowReader reader = RowReader.create(parser.parse(TestFieldAccess.class));
+        assertThat(reader, is(instanceOf(ElementRowReader.class)));
+        assertThat(reader.isBinary(), is(false));
+
+        final TestFieldAccess<String> tfa = new TestFieldAccess<>();
+        tfa.i = 1;
+        tfa.l = 2;
+        tfa.d = 3.5;
+        tfa.s = "s";
+        tfa.unit = TimeUnit.DAYS;
+        tfa.t = "t";
+
+        final long[] longs = new long[reader.longs()];
+        final double[] doubles = new double[reader.doubles()];
+        final Object[] objects = new Object[reader.objects()];
+        reader.read(tfa, longs, doubles, objects);
+
+        assertThat(longs.length, is(5));
+        assertThat(longs[0], is(1l));
+        assertThat(longs[1], is(2l));
+        assertThat(longs[4], is(1l)); // fixed
+        assertThat(doubles[0], is(3.5d));
+        assertThat(objects, arrayContaining((Object) "s", TimeUnit.DAYS, "t"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void elementReaderNotBinary()
+    {
+        RowReader.create(parser.parse(TestFieldAccess.class)).read(new TestFieldAccess<>(), ByteBuffer.allocate(64));
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import org.alkemy.Bar;
+import org.alkemy.Foo;
+
+public class TestInheritance
+{
+    public static class Base
+    {
+        @Bar
+        int base1 = 1;
+
+        @Bar
+        int base2 = 2;
+    }
+
+    public static class DerivedA extends Base
+    {
+        @Foo
+        int a = 3;
+    }
+
+    public static class DerivedB extends Base
+    {
+        @Foo
+        int b = 4;
+    }
+
+    public static class NoOwnLeaves extends DerivedA
+    {
+        String name;
+    }
+
+    public static class HasInheritedNode
+    {
+        NoOwnLeaves node;
+    }
+
+    public static class HasDerivedNodes
+    {
+        DerivedA a;
+
+        DerivedB b;
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.alkemy.Bar;
+import org.alkemy.Foo;
+
+public class TestRecursive
+{
+    @Foo
+    int id;
+
+    TestRecursive parent;
+
+    List<TestRecursive> children = new ArrayList<>();
+
+    Link link;
+
+    public TestRecursive()
+    {
+    }
+
+    public TestRecursive(int id)
+    {
+        this.id = id;
+    }
+
+    public TestRecursive add(TestRecursive child)
+    {
+        child.parent = this;
+        children.add(child);
+        return this;
+    }
+
+    public TestRecursive link(TestRecursive target)
+    {
+        link = new Link();
+        link.target = target;
+        return this;
+    }
+
+    public static class Link
+    {
+        @Bar
+        String name;
+
+        TestRecursive target;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.tools.ToolProvider;
+
+import org.alkemy.apt.TypeIndexProcessor;
+import org.alkemy.parse.impl.TypeIndex.Entry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TypeIndexTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndexedAtBuildTime()
+    {
+        final Entry ordered = TypeIndex.entry(TestOrdered.class);
+        assertThat(Arrays.asList(ordered.order()), contains("s2", "s1", "s3", "s4", "s7", "s6", "s5"));
+        assertThat(ordered.leaves().size(), is(7));
+
+        final Entry deep = TypeIndex.entry(TestDeepLeaves.class);
+        assertThat(deep.leaves().isEmpty(), is(true));
+        assertThat(deep.nodes(), contains("a"));
+        assertThat(TypeIndex.entry(TestDeepLeaves.Nested1.class).nodes(), contains("b"));
+    }
+
+    @Test
+    public void testNotIndexed()
+    {
+        assertThat(TypeIndex.entry(TypeIndexTest.class), is(nullValue()));
+        assertThat(TypeIndex.entry(String.class), is(nullValue()));
+    }
+
+    @Test
+    public void testReadWrite() throws IOException
+    {
+        final Map<String, Entry> index = new TreeMap<>();
+        index.put("a.B", Entry.create(Arrays.asList("x", "y"), Arrays.asList("z"), Arrays.asList("foo(int,java.lang.String[])"),
+                new String[] { "y", "x" }));
+        index.put("a.C", Entry.create(Arrays.asList("w"), Collections.emptyList(), Collections.emptyList(), null));
+
+        final StringWriter writer = new StringWriter();
+        TypeIndex.write(writer, index);
+        final Map<String, Entry> read = TypeIndex.read(new StringReader(writer.toString()));
+
+        assertThat(read.keySet(), contains("a.B", "a.C"));
+        assertThat(read.get("a.B").leaves(), contains("x", "y"));
+        assertThat(read.get("a.B").nodes(), contains("z"));
+        assertThat(read.get("a.B").methods(), contains("foo(int,java.lang.String[])"));
+        assertThat(Arrays.asList(read.get("a.B").order()), contains("y", "x"));
+        assertThat(read.get("a.C").order(), is(nullValue()));
+    }
+
+    @Test
+    public void testIncrementalBuildKeepsIndexedTypes() throws IOException
+    {
+        final File a = source("A", "@org.alkemy.Bar int a;");
+        final File b = source("B", "@org.alkemy.Bar int b;");
+        final File out = folder.newFolder("classes");
+
+        assertThat(compile(out, a, b), is(0));
+        assertThat(compile(out, b), is(0)); // only B changed
+        assertThat(index(out).keySet(), contains("a.A", "a.B"));
+
+        Files.write(b.toPath(), "package a; public class B { int b; }".getBytes(StandardCharsets.UTF_8));
+        assertThat(compile(out, b), is(0)); // B no longer indexed
+        assertThat(index(out).keySet(), contains("a.A"));
+    }
+
+    private File source(String name, String body) throws IOException
+    {
+        final File file = new File(folder.getRoot(), name + ".java");
+        Files.write(file.toPath(), ("package a; public class " + name + " { " + body + " }").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static int compile(File out, File... sources)
+    {
+        final String[] args = new String[6 + sources.length];
+        args[0] = "-d";
+        args[1] = out.getPath();
+        args[2] = "-cp";
+        args[3] = out.getPath() + File.pathSeparator + System.getProperty("java.class.path");
+        args[4] = "-processor";
+        args[5] = TypeIndexProcessor.class.getName();
+        for (int i = 0; i < sources.length; i++)
+        {
+            args[6 + i] = sources[i].getPath();
+        }
+        return ToolProvider.getSystemJavaCompiler().run(null, null, null, args);
+    }
+
+    private static Map<String, Entry> index(File out) throws IOException
+    {
+        try (Reader reader = Files.newBufferedReader(new File(out, TypeIndex.RESOURCE).toPath(), StandardCharsets.UTF_8))
+        {
+            return TypeIndex.read(reader);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.parse.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.alkemy.parse.AlkemyParser;
+import org.alkemy.parse.impl.TestInheritance.DerivedA;
+import org.alkemy.parse.impl.TestInheritance.DerivedB;
+import org.alkemy.parse.impl.TestInheritance.HasDerivedNodes;
+import org.alkemy.parse.impl.TestInheritance.HasInheritedNode;
+import org.alkemy.parse.impl.TestInheritance.NoOwnLeaves;
+import org.alkemy.util.Node;
+import org.junit.Test;
+
+public class TypeParserInheritanceTest
+{
+    private final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+
+    @Test
+    public void testInheritedLeaves()
+    {
+        final Node<AlkemyElement> a = parser.parse(DerivedA.class);
+        assertThat(names(a), contains("base1", "base2", "a"));
+        assertThat(names(parser.parse(NoOwnLeaves.class)), contains("base1", "base2", "a"));
+
+        final DerivedA instance = new DerivedA();
+        final List<Integer> values = a.children().stream().map(e -> e.data().get(instance, Integer.class))
+                .collect(Collectors.toList());
+        assertThat(values, contains(1, 2, 3));
+    }
+
+    @Test
+    public void testSuperclassFragmentsAreShared()
+    {
+        final Node<AlkemyElement> a = parser.parse(DerivedA.class);
+        final Node<AlkemyElement> b = parser.parse(DerivedB.class);
+
+        assertThat(names(b), contains("base1", "base2", "b"));
+        assertThat(b.children().get(0).data(), is(sameInstance(a.children().get(0).data())));
+        assertThat(b.children().get(1).data(), is(sameInstance(a.children().get(1).data())));
+
+        final Node<AlkemyElement> nested = parser.parse(HasDerivedNodes.class).children().get(1);
+        assertThat(nested.children().get(0).data(), is(sameInstance(a.children().get(0).data())));
+        assertThat(nested.children().get(2).data(), is(sameInstance(b.children().get(2).data())));
+    }
+
+    @Test
+    public void testInheritedLeavesMakeNodes()
+    {
+        final Node<AlkemyElement> root = parser.parse(HasInheritedNode.class);
+        assertThat(names(root.children().get(0)), contains("base1", "base2", "a"));
+    }
+
+    private static List<String> names(Node<AlkemyElement> node)
+    {
+        return node.children().stream().map(c -> c.data().desc().getName()).collect(Collectors.toList());
+    }
+}
@@ -21,15 +21,28 @@
  *******************************************************************************/
 package org.alkemy.parse.impl;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.alkemy.TestClass;
+import org.alkemy.TestTraverse;
+import org.alkemy.TestTraverse.NestedA;
+import org.alkemy.TestTraverse.NestedD;
+import org.alkemy.exception.AccessException;
 import org.alkemy.parse.AlkemyParser;
+import org.alkemy.util.InstanceTraversal;
+import org.alkemy.util.Node;
 import org.junit.Test;
 
 public class TypeParserTest
@@ -85,4 +98,118 @@ public class TypeParserTest
 
         assertThat(result.size(), is(7));
     }
+
+    @Test
+    public void testIdenticalSubtreesAreShared()
+    {
+        final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+        final Node<AlkemyElement> root = parser.parse(TestContainers.class);
+        final Node<AlkemyElement> byName = root.children().get(1);
+        final Node<AlkemyElement> subtype = root.children().get(4);
+
+        assertThat(byName.data().componentType(), is(sameInstance(NestedD.class)));
+        assertThat(subtype.data().componentType(), is(sameInstance(NestedD.class)));
+        assertThat(subtype, is(not(sameInstance(byName))));
+        for (int i = 0; i < byName.children().size(); i++)
+        {
+            assertThat(subtype.children().get(i).data(), is(sameInstance(byName.children().get(i).data())));
+        }
+
+        final Node<AlkemyElement> nested = parser.parse(TestTraverse.class).children().get(4);
+        final Node<AlkemyElement> other = parser.parse(NestedA.class);
+
+        assertThat(nested.data().type(), is(sameInstance(NestedA.class)));
+        assertThat(nested, is(not(sameInstance(other))));
+        for (int i = 0; i < other.children().size(); i++)
+        {
+            assertThat(nested.children().get(i).data(), is(sameInstance(other.children().get(i).data())));
+        }
+    }
+
+    @Test
+    public void testParallel()
+    {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            final AlkemyParser sequential = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+            final AlkemyParser parallel = TypeParser.parallel(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()), pool);
+
+            assertThat(names(parallel.parse(TestTraverse.class)), is(names(sequential.parse(TestTraverse.class))));
+            assertThat(names(parallel.parse(TestOrdered.class)), is(names(sequential.parse(TestOrdered.class))));
+            assertThat(names(parallel.parse(TestRecursive.class)), is(names(sequential.parse(TestRecursive.class))));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testContainers()
+    {
+        final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+        final Node<AlkemyElement> root = parser.parse(TestContainers.class);
+        assertThat(root.children().size(), is(5));
+
+        final TestContainers tc = new TestContainers();
+        final AlkemyElement byName = root.children().get(1).data();
+        assertThat(byName.componentType(), is(sameInstance(NestedD.class)));
+        assertThat(root.children().get(1).children().size(), is(2));
+
+        byName.putAll(tc, Collections.singletonMap("d", new NestedD()));
+        assertThat(tc.byName.keySet(), contains("d"));
+        byName.putAll(tc, Collections.singletonMap("e", "not a NestedD"));
+        assertThat(tc.byName.keySet(), contains("d"));
+
+        final List<Object> visited = new ArrayList<>();
+        InstanceTraversal.traverse(root, tc, (e, parent) -> visited.add(parent));
+        assertThat(visited.contains(tc.byName.get("d")), is(true));
+    }
+
+    @Test(expected = AccessException.class)
+    public void testNestedContainersRefuseComponentValues()
+    {
+        final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+        final AlkemyElement nested = parser.parse(TestContainers.class).children().get(2).data();
+        assertThat(nested.isNestedContainer(), is(true));
+
+        nested.addAll(new TestContainers(), new NestedD());
+    }
+
+    @Test
+    public void testTypedLeaves()
+    {
+        final AlkemyParser parser = TypeParser.create(AlkemyLeafLexer.create(AnnotatedAlkemyElementFactory.create()));
+        final List<AlkemyElement> ints = new ArrayList<AlkemyElement>();
+        parser.parse(TestClass.class).drainTo(ints);
+        ints.removeIf(e -> e.isNode());
+        final List<AlkemyElement> strings = new ArrayList<AlkemyElement>();
+        parser.parse(TestOrdered.class).drainTo(strings);
+        strings.removeIf(e -> e.isNode());
+
+        assertThat(ints.get(0), is(instanceOf(AlkemyElement.IntLeaf.class)));
+        assertThat(strings.get(0), is(instanceOf(AlkemyElement.StringLeaf.class)));
+
+        final TestClass tc = new TestClass();
+        ints.get(0).set(7, tc);
+        assertThat(ints.get(0).getInt(tc), is(7));
+        assertThat(new BarElement(ints.get(0)).getInt(tc), is(7));
+
+        final AlkemyElement hidden = parser.parse(TestFieldAccess.class).children().stream().map(Node::data)
+                .filter(e -> "hidden".equals(e.desc().getName())).findFirst().get();
+        assertThat(hidden, is(instanceOf(AlkemyElement.ReflectedIntLeaf.class)));
+
+        final TestFieldAccess<?> tfa = new TestFieldAccess<>();
+        hidden.set(7, tfa);
+        assertThat(hidden.getInt(tfa), is(7));
+        assertThat(new BarElement(hidden).getInt(tfa), is(7));
+    }
+
+    private static List<String> names(Node<AlkemyElement> root)
+    {
+        final List<AlkemyElement> result = new ArrayList<AlkemyElement>();
+        root.drainTo(result);
+        return result.stream().map(e -> e.valueName()).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import org.alkemy.Bar;
+import org.alkemy.annotations.AlkemyLeaf;
+import org.alkemy.exception.AlkemyException;
+import org.alkemy.parse.impl.TestContainers;
+import org.junit.Test;
+
+public class AnnotationUtilsTest
+{
+    @Test
+    public void alkemyTypes() throws NoSuchFieldException
+    {
+        assertThat(AnnotationUtils.findAlkemyTypes(TestContainers.class.getDeclaredField("a")), is((Object) Bar.class));
+        assertThat(AnnotationUtils.findAlkemyTypes(TestContainers.class.getDeclaredField("byName")), is(nullValue()));
+        assertThat(AnnotationUtils.findAlkemyTypes(Aliased.class.getDeclaredField("alias")), is((Object) Bar.class));
+    }
+
+    @Test
+    public void qualifiedTypes()
+    {
+        assertThat(AnnotationUtils.qualifiedType(Bar.class), is((Object) Bar.class));
+        assertThat(AnnotationUtils.qualifiedType(Alias.class), is((Object) Bar.class));
+        assertThat(AnnotationUtils.qualifiedType(Retention.class), is(nullValue()));
+    }
+
+    @Test
+    public void alkemyTypesAreCachedPerMember() throws NoSuchFieldException
+    {
+        // distinct reflected copies of the same field resolve to the same cached type.
+        assertThat(AnnotationUtils.findAlkemyTypes(Aliased.class.getDeclaredField("alias")),
+                sameInstance(AnnotationUtils.findAlkemyTypes(Aliased.class.getDeclaredField("alias"))));
+    }
+
+    @Test(expected = AlkemyException.class)
+    public void multipleAlkemyTypes() throws NoSuchFieldException
+    {
+        AnnotationUtils.findAlkemyTypes(Aliased.class.getDeclaredField("both"));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @AlkemyLeaf(Bar.class)
+    @interface Alias
+    {
+    }
+
+    static class Aliased
+    {
+        @Alias
+        int alias;
+
+        @Alias
+        @Bar
+        int both;
+    }
+}
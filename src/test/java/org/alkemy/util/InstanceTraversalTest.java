@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.alkemy.AlkemyEngine;
+import org.alkemy.Foo;
+import org.alkemy.parse.impl.AlkemyElement;
+import org.alkemy.parse.impl.TestRecursive;
+import org.junit.Test;
+
+public class InstanceTraversalTest
+{
+    @Test
+    public void testRecursiveTypesAreBackReferences()
+    {
+        for (AlkemyEngine engine : new AlkemyEngine[] { AlkemyEngine.create(), AlkemyEngine.builder().lazyParsing(true).build() })
+        {
+            final Node<AlkemyElement> root = engine.parse(TestRecursive.class);
+            assertThat(names(root), contains("TestRecursive", "id", "parent", "children", "link", "name", "target"));
+
+            final Node<AlkemyElement> parent = root.children().get(1);
+            final Node<AlkemyElement> children = root.children().get(2);
+            final Node<AlkemyElement> target = root.children().get(3).children().get(1);
+            assertThat(parent.reference(), is(sameInstance(root)));
+            assertThat(children.reference(), is(sameInstance(root)));
+            assertThat(target.reference(), is(sameInstance(root)));
+            assertThat(parent.hasChildren(), is(false));
+            assertThat(root.children().get(3).reference(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void testProjectionsKeepBackReferences()
+    {
+        final AlkemyEngine engine = AlkemyEngine.create();
+        final Node<AlkemyElement> root = engine.parse(TestRecursive.class, e -> true, e -> e);
+        assertThat(root.children().get(1).reference(), is(sameInstance(root)));
+    }
+
+    @Test
+    public void testTraverseCyclicGraph()
+    {
+        final TestRecursive a = new TestRecursive(1);
+        final TestRecursive b = new TestRecursive(2);
+        final TestRecursive c = new TestRecursive(3);
+        a.add(b.add(c));
+        c.link(a); // cycle
+
+        assertThat(ids(a, InstanceTraversal.DEFAULT_MAX_DEPTH), containsInAnyOrder(1, 2, 3));
+        assertThat(ids(a, 1), containsInAnyOrder(1, 2));
+        assertThat(ids(a, 0), contains(1));
+    }
+
+    private static List<Integer> ids(TestRecursive instance, int maxDepth)
+    {
+        final List<Integer> ids = new ArrayList<>();
+        InstanceTraversal.traverse(AlkemyEngine.create().parse(TestRecursive.class), instance, maxDepth, (e, o) ->
+        {
+            if (e.alkemyType() == Foo.class)
+            {
+                ids.add(e.get(o, Integer.class));
+            }
+        });
+        return ids;
+    }
+
+    private static List<String> names(Node<AlkemyElement> root)
+    {
+        return root.stream().map(e -> e.desc().getName().replaceAll(".*[.$]", "")).collect(Collectors.toList());
+    }
+}
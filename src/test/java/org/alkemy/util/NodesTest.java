@@ -24,6 +24,16 @@ package org.alkemy.util;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.alkemy.Alkemy;
+import org.alkemy.Bar;
+import org.alkemy.Foo;
+import org.alkemy.TestTraverse;
+import org.alkemy.parse.impl.AlkemyElement;
 import org.alkemy.util.Node;
 import org.alkemy.util.Nodes;
 import org.alkemy.util.Node.Builder;
@@ -234,4 +244,97 @@ public class NodesTest
         assertThat(c111.branchDepth(), is(1));
         assertThat(c1111.branchDepth(), is(0));
     }
+
+    @Test
+    public void testTraversalViewsDoNotModifyTheNode()
+    {
+        // r -> { r1 -> { r11 }, r2 }
+        final Builder<Integer> r = Nodes.arborescence(0);
+        r.addChild(1).addChild(11);
+        r.addChild(2);
+
+        final Node<Integer> c = r.build();
+        final List<Integer> postorder = new ArrayList<>();
+        c.postorder().forEach(postorder::add);
+
+        final List<Integer> preorder = new ArrayList<>();
+        c.forEach(preorder::add);
+
+        assertThat(postorder, is(Arrays.asList(11, 1, 2, 0)));
+        assertThat(preorder, is(Arrays.asList(0, 1, 11, 2)));
+        assertThat(c.postorder().preorder().stream().collect(Collectors.toList()), is(preorder));
+    }
+
+    @Test
+    public void testParent()
+    {
+        final Builder<Integer> r = Nodes.arborescence(0);
+        r.addChild(1).addChild(11);
+
+        final Node<Integer> c = r.build();
+        final Node<Integer> c1 = c.children().get(0);
+        final Node<Integer> c11 = c1.children().get(0);
+
+        assertThat(c.parent() == null, is(true));
+        assertThat(c1.parent() == c, is(true));
+        assertThat(c11.parent() == c1, is(true));
+    }
+
+    @Test
+    public void testLazyMaterializesOnDemand()
+    {
+        // n -> { 2n, 2n + 1 } up to 15
+        final List<Integer> expanded = new ArrayList<>();
+        final Node<Integer> lazy = Nodes.lazy(1, n ->
+        {
+            expanded.add(n);
+            return Arrays.asList(2 * n, 2 * n + 1);
+        }, n -> n < 8);
+
+        assertThat(expanded.isEmpty(), is(true));
+        assertThat(lazy.children().get(0).data(), is(2));
+        assertThat(expanded, is(Arrays.asList(1)));
+
+        assertThat(lazy.stream().count(), is(15L));
+        assertThat(lazy.branchDepth(), is(3));
+        assertThat(lazy.postorder().stream().count(), is(15L));
+        assertThat(lazy.children().get(1).children().get(0).parent().data(), is(3));
+        assertThat(expanded.size(), is(7)); // once per branch
+    }
+
+    @Test
+    public void testPrunedPreorderSkipsRejectedBranches()
+    {
+        final List<Integer> expanded = new ArrayList<>();
+        final Node<Integer> lazy = Nodes.lazy(1, n ->
+        {
+            expanded.add(n);
+            return Arrays.asList(2 * n, 2 * n + 1);
+        }, n -> n < 8);
+
+        // rejects 3 -> { 6, 7 } -> { 12, 13, 14, 15 }
+        final List<Integer> visited = Traversers.preorder(lazy, n -> n != 3).stream().collect(Collectors.toList());
+        assertThat(visited, is(Arrays.asList(1, 2, 4, 8, 9, 5, 10, 11)));
+        assertThat(expanded, is(Arrays.asList(1, 2, 4, 5)));
+
+        assertThat(Traversers.preorder(lazy, n -> n > 1).stream().count(), is(0L));
+    }
+
+    @Test
+    public void testElementsOf()
+    {
+        final Node<AlkemyElement> root = Alkemy.parse(TestTraverse.class);
+        final List<AlkemyElement> bars = root.stream().filter(e -> Bar.class == e.alkemyType()).collect(Collectors.toList());
+
+        assertThat(root.elementsOf(Bar.class), is(bars));
+        assertThat(root.elementsOf(Bar.class).size(), is(16));
+        assertThat(root.leavesOf(Bar.class), is(bars));
+        assertThat(root.nodesOf(Bar.class).isEmpty(), is(true));
+        assertThat(root.elementsOf(Foo.class).isEmpty(), is(true));
+        assertThat(root.preorder().elementsOf(Bar.class), is(bars));
+
+        final Node<AlkemyElement> na = root.children().get(4);
+        assertThat(na.elementsOf(Bar.class).stream().map(e -> e.desc().getName()).collect(Collectors.toList()), //
+                is(Arrays.asList("a1", "d1", "d2", "a2")));
+    }
 }
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.alkemy.TestTraverse;
+import org.alkemy.TestTraverse.NestedD;
+import org.alkemy.parse.impl.TestContainers;
+import org.junit.Test;
+
+public class TypesTest
+{
+    @Test
+    public void componentTypes() throws NoSuchFieldException
+    {
+        assertThat(Types.getComponentType(TestContainers.class.getDeclaredField("byName")), is((Object) NestedD.class));
+        assertThat(Types.getComponentType(TestContainers.class.getDeclaredField("nested")), is((Object) NestedD.class));
+        assertThat(Types.getComponentType(TestContainers.class.getDeclaredField("wildcard")), is((Object) NestedD.class));
+        assertThat(Types.getComponentType(TestContainers.class.getDeclaredField("subtype")), is((Object) NestedD.class));
+        assertThat(Types.getComponentType(TestContainers.class.getDeclaredField("a")), is(nullValue()));
+        assertThat(Types.getComponentType(TestTraverse.class.getDeclaredField("na")), is(nullValue()));
+    }
+
+    @Test
+    public void nestedContainers() throws NoSuchFieldException
+    {
+        assertThat(Types.isNestedContainer(TestContainers.class.getDeclaredField("nested")), is(true));
+        assertThat(Types.isNestedContainer(TestContainers.class.getDeclaredField("wildcard")), is(true));
+        assertThat(Types.isNestedContainer(TestContainers.class.getDeclaredField("byName")), is(false));
+        assertThat(Types.isNestedContainer(TestContainers.class.getDeclaredField("subtype")), is(false));
+        assertThat(Types.isNestedContainer(TestContainers.class.getDeclaredField("a")), is(false));
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2017, Xavier Miret Andres <xavier.mires@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package org.alkemy.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.alkemy.exception.TypeMismatch;
+import org.junit.Test;
+
+public class ValueConverterTest
+{
+    @Test
+    public void convertersAreSharedPerType()
+    {
+        assertThat(ValueConverter.of(int.class), is(sameInstance(ValueConverter.of(int.class))));
+        assertThat(ValueConverter.of(int.class).target(), is((Object) int.class));
+    }
+
+    @Test
+    public void numericTargets()
+    {
+        final ValueConverter ints = ValueConverter.of(int.class);
+        assertThat(ints.toInt(5), is(5));
+        assertThat(ints.toInt(5.7d), is(5));
+        assertThat(ints.toInt("42"), is(42));
+        assertThat(ints.toInt("4.2"), is(4));
+        assertThat(ints.toInt(true), is(1));
+        assertThat(ints.toInt('a'), is(97));
+        assertThat(ints.toInt(TimeUnit.SECONDS), is(TimeUnit.SECONDS.ordinal()));
+        assertThat(ints.convert(3l), is((Object) 3));
+
+        assertThat(ValueConverter.of(double.class).toDouble("1.5"), is(1.5d));
+        assertThat(ValueConverter.of(Long.class).convert(7), is((Object) 7l));
+        assertThat(ValueConverter.of(boolean.class).toBoolean("true"), is(true));
+        assertThat(ValueConverter.of(boolean.class).toBoolean(0), is(false));
+    }
+
+    @Test
+    public void referenceTargets()
+    {
+        assertThat(ValueConverter.of(String.class).convert(TimeUnit.DAYS), is((Object) "DAYS"));
+        assertThat(ValueConverter.of(String.class).convert(12), is((Object) "12"));
+        assertThat(ValueConverter.of(TimeUnit.class).convert("HOURS"), is((Object) TimeUnit.HOURS));
+        assertThat(ValueConverter.of(TimeUnit.class).convert(0), is((Object) TimeUnit.NANOSECONDS));
+        assertThat(ValueConverter.of(Instant.class).convert(1000l), is((Object) Instant.ofEpochSecond(1)));
+        assertThat(ValueConverter.of(Instant.class).convert("1970-01-01T00:00:01Z"), is((Object) Instant.ofEpochSecond(1)));
+        assertThat(ValueConverter.of(LocalDate.class).convert(1), is((Object) LocalDate.of(1970, 1, 2)));
+        assertThat(ValueConverter.of(Object.class).convert(null), is(nullValue()));
+    }
+
+    @Test
+    public void fieldConvertersAreNotShared()
+    {
+        assertThat(ValueConverter.create(int.class), is(not(sameInstance(ValueConverter.create(int.class)))));
+        assertThat(ValueConverter.create(int.class).target(), is((Object) int.class));
+    }
+
+    @Test
+    public void mixedSourceTypes()
+    {
+        final ValueConverter longs = ValueConverter.create(long.class);
+        for (Object value : new Object[] { 1, "2", 3d, "4", 5 })
+        {
+            assertThat(longs.toLong(value), is(((Number) ValueConverter.of(Long.class).convert(value)).longValue()));
+        }
+    }
+
+    @Test
+    public void booleanText()
+    {
+        final ValueConverter booleans = ValueConverter.create(boolean.class);
+        assertThat(booleans.toBoolean("TRUE"), is(true));
+        assertThat(booleans.toBoolean(" 1 "), is(true));
+        assertThat(booleans.toBoolean("false"), is(false));
+        assertThat(booleans.toBoolean("0"), is(false));
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void unparseableBooleanText()
+    {
+        ValueConverter.of(boolean.class).toBoolean("yes");
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void unparseableText()
+    {
+        ValueConverter.of(int.class).toInt("foo");
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void nullIntoPrimitive()
+    {
+        ValueConverter.of(int.class).toInt(null);
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void unknownEnumConstant()
+    {
+        ValueConverter.of(TimeUnit.class).convert("FORTNIGHTS");
+    }
+
+    @Test(expected = TypeMismatch.class)
+    public void unsupportedSource()
+    {
+        ValueConverter.of(int.class).toInt(new Object());
+    }
+}